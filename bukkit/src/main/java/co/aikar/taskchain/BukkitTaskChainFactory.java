@@ -30,7 +30,11 @@ import org.bukkit.event.EventHandler;
 import org.bukkit.event.Listener;
 import org.bukkit.event.server.PluginDisableEvent;
 import org.bukkit.plugin.Plugin;
+import org.bukkit.plugin.ServicePriority;
+import org.bukkit.plugin.ServicesManager;
 
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.ForkJoinPool;
 import java.util.concurrent.ThreadPoolExecutor;
 import java.util.concurrent.TimeUnit;
 
@@ -43,6 +47,37 @@ public class BukkitTaskChainFactory extends TaskChainFactory {
     public static TaskChainFactory create(Plugin plugin) {
         return new BukkitTaskChainFactory(plugin, new TaskChainAsyncQueue());
     }
+
+    /**
+     * Creates a factory whose async tasks run on a thread pool shared with other plugins using shared factories.
+     *
+     * The pool is registered with the ServicesManager by the first plugin to create one. If that plugin is disabled,
+     * plugins already using the pool keep it, and the next shared factory registers a new one.
+     * @param maxThreads Maximum number of this plugin's async tasks to run at once
+     */
+    public static TaskChainFactory createShared(Plugin plugin, int maxThreads) {
+        return createShared(plugin, getSharedExecutor(plugin), maxThreads);
+    }
+
+    /**
+     * Creates a factory whose async tasks run on the given thread pool
+     * @param executor The pool to share
+     * @param maxThreads Maximum number of this plugin's async tasks to run at once
+     */
+    public static TaskChainFactory createShared(Plugin plugin, ExecutorService executor, int maxThreads) {
+        return new BukkitTaskChainFactory(plugin, new TaskChainSharedAsyncQueue(executor, maxThreads));
+    }
+
+    private static ForkJoinPool getSharedExecutor(Plugin plugin) {
+        final ServicesManager services = Bukkit.getServicesManager();
+        final ForkJoinPool existing = services.load(ForkJoinPool.class);
+        if (existing != null && !existing.isShutdown()) {
+            return existing;
+        }
+        final ForkJoinPool executor = TaskChainSharedAsyncQueue.newSharedExecutor();
+        services.register(ForkJoinPool.class, executor, plugin, ServicePriority.Normal);
+        return executor;
+    }
 /* @TODO: #9 - Not Safe to do this
     public static TaskChainFactory create(Plugin plugin, ThreadPoolExecutor executor) {
         return new BukkitTaskChainFactory(plugin, new TaskChainAsyncQueue(executor));
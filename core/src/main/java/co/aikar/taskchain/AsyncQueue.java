@@ -39,4 +39,14 @@ public interface AsyncQueue {
      * @param unit
      */
     void shutdown(int timeout, TimeUnit unit);
+
+    /**
+     * Used during shutdown to stop waiting on chains that can no longer make progress.
+     * Queues that can not tell should leave the default, which keeps shutdown waiting for its full duration.
+     *
+     * @return If no tasks are queued or running
+     */
+    default boolean isIdle() {
+        return false;
+    }
 }
@@ -45,6 +45,31 @@ public interface GameInterface {
      */
     void postToMain(Runnable run);
 
+    /**
+     * Schedule a runnable to run on the thread that owns the supplied region.
+     *
+     * Platforms that tick regions of the world in parallel should override this along with
+     * {@link #isOwnedByCurrentThread(Object)}. Single threaded platforms can leave the default,
+     * which runs everything on the main thread.
+     *
+     * @param regionKey Platform specific key identifying the region, such as a chunk or location
+     * @param run
+     */
+    default void postToRegion(Object regionKey, Runnable run) {
+        postToMain(run);
+    }
+
+    /**
+     * Determines if the current thread is the one that owns the supplied region.
+     *
+     * @see #postToRegion(Object, Runnable)
+     * @param regionKey Platform specific key identifying the region
+     * @return
+     */
+    default boolean isOwnedByCurrentThread(Object regionKey) {
+        return isMainThread();
+    }
+
     /**
      * Execute the runnable off of the main thread
      * @param run
@@ -26,6 +26,9 @@ package co.aikar.taskchain;
 
 import co.aikar.taskchain.TaskChainTasks.Task;
 
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
 import java.util.Map;
 import java.util.Queue;
 import java.util.concurrent.ConcurrentLinkedQueue;
@@ -35,16 +38,25 @@ import java.util.function.Consumer;
 class SharedTaskChain<R> extends TaskChain<R> {
     private final String name;
     private final Map<String, Queue<SharedTaskChain>> sharedChains;
+    private final Object lock;
+    private final Coalesce coalesce;
     private Queue<SharedTaskChain> queue;
+    private Consumer<Boolean> originalDone;
     private volatile boolean isPending;
     private volatile boolean canExecute = true;
 
     SharedTaskChain(String name, TaskChainFactory factory) {
+        this(name, factory, Coalesce.NONE);
+    }
+
+    SharedTaskChain(String name, TaskChainFactory factory, Coalesce coalesce) {
         super(factory);
         this.sharedChains = factory.getSharedChains();
+        this.lock = this.sharedChains;
         this.name = name;
+        this.coalesce = coalesce;
 
-        synchronized (this.sharedChains) {
+        synchronized (this.lock) {
             this.queue = sharedChains.get(this.name);
             if (this.queue == null) {
                 this.queue = new ConcurrentLinkedQueue<>();
@@ -54,9 +66,27 @@ class SharedTaskChain<R> extends TaskChain<R> {
         }
     }
 
+    /**
+     * Creates a chain on a queue that is not registered by name, such as a stripe of {@link TaskChainLanes}
+     * The queue is used as the lock and is never removed.
+     */
+    SharedTaskChain(Queue<SharedTaskChain> queue, TaskChainFactory factory) {
+        super(factory);
+        this.sharedChains = null;
+        this.lock = queue;
+        this.name = null;
+        this.coalesce = Coalesce.NONE;
+        this.queue = queue;
+
+        synchronized (this.lock) {
+            this.queue.add(this);
+        }
+    }
+
     @Override
     public void execute(Consumer<Boolean> done, BiConsumer<Exception, Task<?, ?>> errorHandler) {
         this.setErrorHandler(errorHandler);
+        this.originalDone = done;
         this.setDoneCallback((finished) -> {
             this.setDoneCallback(done);
             this.done(finished);
@@ -64,7 +94,7 @@ class SharedTaskChain<R> extends TaskChain<R> {
         });
 
         boolean shouldExecute;
-        synchronized (this.sharedChains) {
+        synchronized (this.lock) {
             this.isPending = this.queue.peek() != this;
             shouldExecute = !this.isPending && this.canExecute;
             if (shouldExecute) {
@@ -81,11 +111,28 @@ class SharedTaskChain<R> extends TaskChain<R> {
      */
     private void processQueue() {
         this.queue.poll(); // Remove self
-        final SharedTaskChain next;
-        synchronized (this.sharedChains) {
+        SharedTaskChain next;
+        List<SharedTaskChain> superseded = null;
+        synchronized (this.lock) {
             next = this.queue.peek();
+            while (next != null && next.isPending && next.coalesce == Coalesce.LATEST) {
+                final Iterator<SharedTaskChain> it = this.queue.iterator();
+                it.next();
+                final SharedTaskChain newer = it.hasNext() ? it.next() : null;
+                if (newer == null || !newer.isPending) {
+                    break;
+                }
+                this.queue.poll();
+                if (superseded == null) {
+                    superseded = new ArrayList<>();
+                }
+                superseded.add(next);
+                next = newer;
+            }
             if (next == null) {
-                this.sharedChains.remove(this.name);
+                if (this.sharedChains != null) {
+                    this.sharedChains.remove(this.name);
+                }
                 return;
             }
             if (!next.isPending) {
@@ -95,6 +142,19 @@ class SharedTaskChain<R> extends TaskChain<R> {
             this.canExecute = false;
         }
 
+        if (superseded != null) {
+            for (SharedTaskChain chain : superseded) {
+                chain.supersede();
+            }
+        }
         next.execute0();
     }
+
+    /**
+     * Completes a pending chain that was replaced by a newer chain in the queue without running it.
+     */
+    private void supersede() {
+        this.setDoneCallback(this.originalDone);
+        this.done(false);
+    }
 }
@@ -35,19 +35,26 @@ package co.aikar.taskchain;
 
 import co.aikar.taskchain.TaskChainTasks.*;
 
+import java.nio.ByteBuffer;
+import java.nio.file.Path;
 import java.util.ArrayList;
-import java.util.Collections;
+import java.util.Arrays;
+import java.util.Collection;
 import java.util.HashMap;
+import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
 import java.util.Objects;
+import java.util.Spliterator;
+import java.util.Spliterators;
 import java.util.concurrent.CompletableFuture;
-import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ScheduledFuture;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
 import java.util.function.BiConsumer;
 import java.util.function.Consumer;
+import java.util.function.Function;
 import java.util.function.Predicate;
-import java.util.stream.Collectors;
 
 
 /**
@@ -56,22 +63,54 @@ import java.util.stream.Collectors;
 @SuppressWarnings({"unused", "FieldAccessedSynchronizedAndUnsynchronized"})
 public class TaskChain <T> {
     private static final ThreadLocal<TaskChain<?>> currentChain = new ThreadLocal<>();
+    /**
+     * Passed as the previous result when the previous task stored a primitive on the chain
+     */
+    private static final Object PRIMITIVE = new Object();
+    private static final byte INT = 1;
+    private static final byte LONG = 2;
+    private static final byte DOUBLE = 3;
+    /**
+     * Passed as the previous result when the previous task emitted its values into the chains registers
+     */
+    private static final TaskChainDataWrappers.Data6<?, ?, ?, ?, ?, ?> EMITTED = new TaskChainDataWrappers.Data6<>(null, null, null, null, null, null);
 
     private final GameInterface impl;
     private final TaskChainFactory factory;
-    private final Map<String, Object> taskMap = new HashMap<>(0);
-    private final ConcurrentLinkedQueue<TaskHolder<?,?>> chainQueue = new ConcurrentLinkedQueue<>();
+    private final List<TaskHolder<?,?>> chainQueue = new ArrayList<>();
+    private Map<String, Object> taskMap;
 
     private int currentActionIndex = 0;
     private int actionIndex = 0;
+    private int nextHolder = 0;
     private boolean executed = false;
     private boolean async = false;
+    private boolean regionThread = false;
     private boolean done = false;
+    private boolean lowPriority = false;
+    /**
+     * Set for chains that are reset and executed again, which must keep their tasks
+     */
+    private boolean recurring = false;
+    /**
+     * Bumped each time a recurring chain is reset, so callbacks left over from an earlier run are ignored
+     */
+    private volatile int generation = 0;
 
     private Object previous;
+    private long primitive;
+    private byte primitiveType;
+    private Object[] registers;
+    private int emitted;
+    /**
+     * The thread running a task whose result the chain reads directly, the only place emit may use the registers
+     */
+    private volatile Thread emitThread;
     private TaskHolder<?, ?> currentHolder;
     private Consumer<Boolean> doneCallback;
     private BiConsumer<Exception, Task<?, ?>> errorHandler;
+    private TaskChainJournal journal;
+    private String journalId;
 
     /* ======================================================================================== */
     TaskChain(TaskChainFactory factory) {
@@ -115,6 +154,10 @@ public class TaskChain <T> {
     public void setErrorHandler(BiConsumer<Exception, Task<?, ?>> errorHandler) {
         this.errorHandler = errorHandler;
     }
+
+    TaskChainFactory getFactory() {
+        return factory;
+    }
     // </editor-fold>
     /* ======================================================================================== */
     // <editor-fold desc="// API Methods - Data Wrappers">
@@ -153,6 +196,116 @@ public class TaskChain <T> {
     public static <D1, D2, D3, D4, D5, D6> TaskChainDataWrappers.Data6<D1, D2, D3, D4, D5, D6> multi(D1 var1, D2 var2, D3 var3, D4 var4, D5 var5, D6 var6) {
         return new TaskChainDataWrappers.Data6<>(var1, var2, var3, var4, var5, var6);
     }
+
+    /**
+     * Passes multiple values to the next task without creating a data wrapper.
+     *
+     * Must be returned from a task running on the current chain, which the next task receives as
+     * separate values with a Task2, such as {@link #sync2(Task2)}. Anywhere else, such as in a parallel or hedged task,
+     * behaves like multi.
+     * The next task must take the same number of values, or it fails with an IllegalStateException.
+     */
+    public static <D1, D2> TaskChainDataWrappers.Data2<D1, D2> emit(D1 var1, D2 var2) {
+        final TaskChain<?> chain = currentChain.get();
+        if (chain == null || chain.emitThread != Thread.currentThread()) {
+            return multi(var1, var2);
+        }
+        final Object[] registers = chain.registers();
+        registers[0] = var1;
+        registers[1] = var2;
+        chain.emitted = 2;
+        return emittedMarker();
+    }
+
+    /**
+     * Passes multiple values to the next task without creating a data wrapper.
+     *
+     * Must be returned from a task running on the current chain, which the next task receives as
+     * separate values with a Task3, such as {@link #sync3(Task3)}. Anywhere else, such as in a parallel or hedged task,
+     * behaves like multi.
+     * The next task must take the same number of values, or it fails with an IllegalStateException.
+     */
+    public static <D1, D2, D3> TaskChainDataWrappers.Data3<D1, D2, D3> emit(D1 var1, D2 var2, D3 var3) {
+        final TaskChain<?> chain = currentChain.get();
+        if (chain == null || chain.emitThread != Thread.currentThread()) {
+            return multi(var1, var2, var3);
+        }
+        final Object[] registers = chain.registers();
+        registers[0] = var1;
+        registers[1] = var2;
+        registers[2] = var3;
+        chain.emitted = 3;
+        return emittedMarker();
+    }
+
+    /**
+     * Passes multiple values to the next task without creating a data wrapper.
+     *
+     * Must be returned from a task running on the current chain, which the next task receives as
+     * separate values with a Task4, such as {@link #sync4(Task4)}. Anywhere else, such as in a parallel or hedged task,
+     * behaves like multi.
+     * The next task must take the same number of values, or it fails with an IllegalStateException.
+     */
+    public static <D1, D2, D3, D4> TaskChainDataWrappers.Data4<D1, D2, D3, D4> emit(D1 var1, D2 var2, D3 var3, D4 var4) {
+        final TaskChain<?> chain = currentChain.get();
+        if (chain == null || chain.emitThread != Thread.currentThread()) {
+            return multi(var1, var2, var3, var4);
+        }
+        final Object[] registers = chain.registers();
+        registers[0] = var1;
+        registers[1] = var2;
+        registers[2] = var3;
+        registers[3] = var4;
+        chain.emitted = 4;
+        return emittedMarker();
+    }
+
+    /**
+     * Passes multiple values to the next task without creating a data wrapper.
+     *
+     * Must be returned from a task running on the current chain, which the next task receives as
+     * separate values with a Task5, such as {@link #sync5(Task5)}. Anywhere else, such as in a parallel or hedged task,
+     * behaves like multi.
+     * The next task must take the same number of values, or it fails with an IllegalStateException.
+     */
+    public static <D1, D2, D3, D4, D5> TaskChainDataWrappers.Data5<D1, D2, D3, D4, D5> emit(D1 var1, D2 var2, D3 var3, D4 var4, D5 var5) {
+        final TaskChain<?> chain = currentChain.get();
+        if (chain == null || chain.emitThread != Thread.currentThread()) {
+            return multi(var1, var2, var3, var4, var5);
+        }
+        final Object[] registers = chain.registers();
+        registers[0] = var1;
+        registers[1] = var2;
+        registers[2] = var3;
+        registers[3] = var4;
+        registers[4] = var5;
+        chain.emitted = 5;
+        return emittedMarker();
+    }
+
+    /**
+     * Passes multiple values to the next task without creating a data wrapper.
+     *
+     * Must be returned from a task running on the current chain, which the next task receives as
+     * separate values with a Task6, such as {@link #sync6(Task6)}. Anywhere else, such as in a parallel or hedged task,
+     * behaves like multi.
+     * The next task must take the same number of values, or it fails with an IllegalStateException.
+     */
+    public static <D1, D2, D3, D4, D5, D6> TaskChainDataWrappers.Data6<D1, D2, D3, D4, D5, D6> emit(D1 var1, D2 var2, D3 var3, D4 var4, D5 var5, D6 var6) {
+        final TaskChain<?> chain = currentChain.get();
+        if (chain == null || chain.emitThread != Thread.currentThread()) {
+            return multi(var1, var2, var3, var4, var5, var6);
+        }
+        final Object[] registers = chain.registers();
+        registers[0] = var1;
+        registers[1] = var2;
+        registers[2] = var3;
+        registers[3] = var4;
+        registers[4] = var5;
+        registers[5] = var6;
+        chain.emitted = 6;
+        return emittedMarker();
+    }
     // </editor-fold>
     /* ======================================================================================== */
 
@@ -196,13 +349,70 @@ public class TaskChain <T> {
         return this;
     }
 
+    /**
+     * Adds the template's tasks to this chain, in place. The tasks share this chain's Task Data, error handler
+     * and thread, instead of running as a separate chain.
+     *
+     * @param template The template to add
+     * @param <R> Return type that the next parameter can expect as argument type
+     * @return The same chain
+     */
+    @SuppressWarnings("WeakerAccess")
+    public <R> TaskChain<R> then(TaskChainTemplate<T, R> template) {
+        return splice(template.apply(this));
+    }
+
+    /**
+     * {@link TaskChain#then(TaskChainTemplate)} for a function that adds tasks to this chain
+     *
+     * Example: Plugin.newChain().inline(chain -&gt; chain.async(some::load).sync(some::apply)).execute();
+     *
+     * @param steps Adds tasks to the chain it is passed, and returns it
+     * @param <R> Return type that the next parameter can expect as argument type
+     * @return The same chain
+     */
+    @SuppressWarnings("WeakerAccess")
+    public <R> TaskChain<R> inline(Function<TaskChain<T>, TaskChain<R>> steps) {
+        return splice(steps.apply(this));
+    }
+
+    private <R> TaskChain<R> splice(TaskChain<R> result) {
+        if (result != this) {
+            throw new RuntimeException("Template must add its tasks to the chain it is given, and return it");
+        }
+        return result;
+    }
+
+    /**
+     * Records the result of every task in the journal under the given id, and resumes from the last recorded
+     * result if a chain with the same id did not finish, such as before a crash.
+     *
+     * The chain must be built with the same tasks in the same order each time, as tasks are identified by their position.
+     * Records are kept if the chain aborts or errors, so the next chain with the id resumes; use
+     * {@link TaskChainJournal#discard(String)} to start over instead.
+     *
+     * @param journal The journal opened with {@link TaskChainFactory#openJournal(java.nio.file.Path)}
+     * @param id Identifies this job across restarts
+     */
+    @SuppressWarnings("WeakerAccess")
+    public TaskChain<T> journaled(TaskChainJournal journal, String id) {
+        synchronized (this) {
+            if (this.executed) {
+                throw new RuntimeException("TaskChain is executing");
+            }
+            this.journal = Objects.requireNonNull(journal, "journal");
+            this.journalId = Objects.requireNonNull(id, "id");
+        }
+        return this;
+    }
+
     /**
      * Checks if the chain has a value saved for the specified key.
      * @param key Key to check if Task Data has a value for
      */
     @SuppressWarnings("WeakerAccess")
     public boolean hasTaskData(String key) {
-        return taskMap.containsKey(key);
+        return taskMap != null && taskMap.containsKey(key);
     }
 
     /**
@@ -214,7 +424,7 @@ public class TaskChain <T> {
     @SuppressWarnings("WeakerAccess")
     public <R> R getTaskData(String key) {
         //noinspection unchecked
-        return (R) taskMap.get(key);
+        return taskMap != null ? (R) taskMap.get(key) : null;
     }
 
     /**
@@ -228,6 +438,9 @@ public class TaskChain <T> {
      */
     @SuppressWarnings("WeakerAccess")
     public <R> R setTaskData(String key, Object val) {
+        if (taskMap == null) {
+            taskMap = new HashMap<>();
+        }
         //noinspection unchecked
         return (R) taskMap.put(key, val);
     }
@@ -241,7 +454,7 @@ public class TaskChain <T> {
     @SuppressWarnings("WeakerAccess")
     public <R> R removeTaskData(String key) {
         //noinspection unchecked
-        return (R) taskMap.remove(key);
+        return taskMap != null ? (R) taskMap.remove(key) : null;
     }
 
     /**
@@ -295,7 +508,7 @@ public class TaskChain <T> {
     public TaskChain<T> delay(final int gameUnits) {
         //noinspection CodeBlock2Expr
         return currentCallback((input, next) -> {
-            impl.scheduleTask(gameUnits, () -> next.accept(input));
+            factory.getTicker().schedule(gameUnits, () -> next.accept(input));
         });
     }
 
@@ -309,10 +522,56 @@ public class TaskChain <T> {
     public TaskChain<T> delay(final int duration, TimeUnit unit) {
         //noinspection CodeBlock2Expr
         return currentCallback((input, next) -> {
+            if (factory.shutdown) {
+                // The platform may schedule on the main thread, which shutdown is blocking
+                next.accept(input);
+                return;
+            }
             impl.scheduleTask(duration, unit, () -> next.accept(input));
         });
     }
 
+    /**
+     * Marks every sync task in this chain as low priority. They are held back while the server is lagging,
+     * and run once ticks have headroom again, or once they have waited the factory's max deferral.
+     *
+     * @see TaskChain#syncWhenIdle(Task)
+     */
+    @SuppressWarnings("WeakerAccess")
+    public TaskChain<T> lowPriority() {
+        synchronized (this) {
+            if (this.executed) {
+                throw new RuntimeException("TaskChain is executing");
+            }
+            this.lowPriority = true;
+        }
+        factory.getTicker();
+        return this;
+    }
+
+    /**
+     * Execute task on main thread as low priority, with the last output, returning an output.
+     *
+     * While the server is lagging, the task is held back until ticks have headroom again,
+     * or it has waited the factory's max deferral.
+     *
+     * @param task The task to execute
+     * @param <R> Return type that the next parameter can expect as argument type
+     */
+    @SuppressWarnings("WeakerAccess")
+    public <R> TaskChain<R> syncWhenIdle(Task<R, T> task) {
+        return addTask(lowPriority(new TaskHolder<>(this, false, task)));
+    }
+
+    /**
+     * {@link TaskChain#syncWhenIdle(Task)}, with no input or output
+     * @param task The task to execute
+     */
+    @SuppressWarnings("WeakerAccess")
+    public TaskChain<?> syncWhenIdle(GenericTask task) {
+        return add0(lowPriority(new TaskHolder<>(this, false, task)));
+    }
+
     // </editor-fold>
     // <editor-fold desc="// API Methods - Abort">
 
@@ -702,11 +961,9 @@ public class TaskChain <T> {
      * @param <R> Return type that the next parameter can expect as argument type
      */
     @SafeVarargs
-    @SuppressWarnings("WeakerAccess")
+    @SuppressWarnings({"WeakerAccess", "varargs"})
     public final <R> TaskChain<List<R>> futures(CompletableFuture<R>... futures) {
-        List<CompletableFuture<R>> futureList = new ArrayList<>(futures.length);
-        Collections.addAll(futureList, futures);
-        return futures(futureList);
+        return futures(Arrays.asList(futures));
     }
 
     /**
@@ -721,6 +978,100 @@ public class TaskChain <T> {
         return currentFuture((input) -> getFuture(futures));
     }
 
+    /**
+     * {@link TaskChain#futures(List)}, but when failFast is set the chain fails as soon as any of
+     * the futures fail, and the remaining futures are cancelled.
+     *
+     * @param futures The Futures to wait until it is complete on
+     * @param failFast Whether to fail and cancel the rest as soon as one future fails
+     * @param <R> Return type that the next parameter can expect as argument type
+     */
+    @SuppressWarnings("WeakerAccess")
+    public <R> TaskChain<List<R>> futures(List<CompletableFuture<R>> futures, boolean failFast) {
+        return currentFuture((input) -> TaskChainFutures.all(futures, failFast));
+    }
+
+    /**
+     * Takes multiple supplied Futures, and holds processing of the chain until the first of them completes successfully.
+     * The result of that Future will be passed to the next task, and the remaining futures are cancelled.
+     *
+     * The chain only fails if every future fails.
+     *
+     * @param futures The Futures to wait on
+     * @param <R> Return type that the next parameter can expect as argument type
+     */
+    @SafeVarargs
+    @SuppressWarnings({"WeakerAccess", "varargs"})
+    public final <R> TaskChain<R> futuresAny(CompletableFuture<R>... futures) {
+        return futuresAny(Arrays.asList(futures), false);
+    }
+
+    /**
+     * {@link TaskChain#futuresAny(CompletableFuture[])}
+     *
+     * @param futures The Futures to wait on
+     * @param <R> Return type that the next parameter can expect as argument type
+     */
+    @SuppressWarnings("WeakerAccess")
+    public <R> TaskChain<R> futuresAny(List<CompletableFuture<R>> futures) {
+        return futuresAny(futures, false);
+    }
+
+    /**
+     * {@link TaskChain#futuresAny(CompletableFuture[])}, but when failFast is set the chain fails as soon as any of
+     * the futures fail, and the remaining futures are cancelled.
+     *
+     * @param futures The Futures to wait on
+     * @param failFast Whether to fail and cancel the rest as soon as one future fails
+     * @param <R> Return type that the next parameter can expect as argument type
+     */
+    @SuppressWarnings("WeakerAccess")
+    public <R> TaskChain<R> futuresAny(List<CompletableFuture<R>> futures, boolean failFast) {
+        return currentFuture((input) -> TaskChainFutures.any(futures, failFast));
+    }
+
+    /**
+     * Takes multiple supplied Futures, and holds processing of the chain until n of them complete successfully.
+     * Those n results are passed to the next task in the order they completed, and the remaining futures are cancelled.
+     *
+     * The chain fails once too many futures have failed for n to succeed.
+     *
+     * @param n How many successful results to wait for
+     * @param futures The Futures to wait on
+     * @param <R> Return type that the next parameter can expect as argument type
+     */
+    @SuppressWarnings("WeakerAccess")
+    public <R> TaskChain<List<R>> futuresFirstN(int n, List<CompletableFuture<R>> futures) {
+        return futuresFirstN(n, futures, false);
+    }
+
+    /**
+     * {@link TaskChain#futuresFirstN(int, List)}, but when failFast is set the chain fails as soon as any of
+     * the futures fail, and the remaining futures are cancelled.
+     *
+     * @param n How many successful results to wait for
+     * @param futures The Futures to wait on
+     * @param failFast Whether to fail and cancel the rest as soon as one future fails
+     * @param <R> Return type that the next parameter can expect as argument type
+     */
+    @SuppressWarnings("WeakerAccess")
+    public <R> TaskChain<List<R>> futuresFirstN(int n, List<CompletableFuture<R>> futures, boolean failFast) {
+        return currentFuture((input) -> TaskChainFutures.firstN(n, futures, failFast));
+    }
+
+    /**
+     * Takes multiple supplied Futures, and holds processing of the chain until every one of them has completed,
+     * successfully or not. The outcome of every future is passed to the next task as a List, in the order the futures
+     * were supplied. A failed future does not fail the chain.
+     *
+     * @param futures The Futures to wait on
+     * @param <R> Result type of the futures
+     */
+    @SuppressWarnings("WeakerAccess")
+    public <R> TaskChain<List<TaskChainDataWrappers.Settled<R>>> futuresSettled(List<CompletableFuture<R>> futures) {
+        return currentFuture((input) -> TaskChainFutures.settled(futures));
+    }
+
     /**
      * Executes a Task on the Main thread that provides a list of Futures, and holds processing
      * of the chain until all of the futures completes.
@@ -914,137 +1265,1093 @@ public class TaskChain <T> {
         return add0(new TaskHolder<>(this, null, task));
     }
 
+    /**
+     * {@link TaskChain#syncFuture(FutureTask)} for steps built by TaskChain itself. If the future completes
+     * with an {@link AbortChainException}, such as from a task calling {@link TaskChain#abort()}, the chain
+     * aborts instead of calling the error handler.
+     */
+    <R> TaskChain<R> internalFuture(Boolean async, FutureTask<R, T> task) {
+        final TaskHolder<R, T> holder = new TaskHolder<>(this, async, task);
+        holder.quietAbort = true;
+        return addTask(holder);
+    }
+
     // </editor-fold>
-    // <editor-fold desc="// API Methods - Normal">
-    /* ======================================================================================== */
-    // Normal Tasks
-    /* ======================================================================================== */
+    // <editor-fold desc="// API Methods - Parallel">
 
     /**
-     * Execute task on main thread, with no input, returning an output
-     * @param task The task to execute
-     * @param <R> Return type that the next parameter can expect as argument type
+     * Runs the tasks at the same time, each with the last output, and passes all of their results to the next task.
+     *
+     * Future tasks are started on the current thread, others run on the async queue. If any task fails,
+     * the chain fails with that error without waiting on the others.
+     *
+     * The tasks run at the same time, so they must not call {@link TaskChain#emit} or use Task Data.
      */
-    @SuppressWarnings("WeakerAccess")
-    public <R> TaskChain<R> syncFirst(FirstTask<R> task) {
-        //noinspection unchecked
-        return add0(new TaskHolder<>(this, false, task));
+    @SuppressWarnings({"WeakerAccess", "unchecked"})
+    public <D1, D2> TaskChain<TaskChainDataWrappers.Data2<D1, D2>> parallel(Task<D1, T> a, Task<D2, T> b) {
+        return internalFuture(null, (input) -> runParallel(input, a, b)
+            .thenApply((r) -> multi((D1) r.get(0), (D2) r.get(1))));
     }
 
     /**
-     * {@link TaskChain#syncFirst(FirstTask)} but ran off main thread
-     * @param task The task to execute
-     * @param <R> Return type that the next parameter can expect as argument type
+     * {@link TaskChain#parallel(Task, Task)} with 3 tasks
      */
-    @SuppressWarnings("WeakerAccess")
-    public <R> TaskChain<R> asyncFirst(FirstTask<R> task) {
-        //noinspection unchecked
-        return add0(new TaskHolder<>(this, true, task));
+    @SuppressWarnings({"WeakerAccess", "unchecked"})
+    public <D1, D2, D3> TaskChain<TaskChainDataWrappers.Data3<D1, D2, D3>> parallel(Task<D1, T> a, Task<D2, T> b, Task<D3, T> c) {
+        return internalFuture(null, (input) -> runParallel(input, a, b, c)
+            .thenApply((r) -> multi((D1) r.get(0), (D2) r.get(1), (D3) r.get(2))));
     }
 
     /**
-     * {@link TaskChain#syncFirst(FirstTask)} but ran on current thread the Chain was created on
-     * @param task The task to execute
-     * @param <R> Return type that the next parameter can expect as argument type
+     * {@link TaskChain#parallel(Task, Task)} with 4 tasks
      */
-    @SuppressWarnings("WeakerAccess")
-    public <R> TaskChain<R> currentFirst(FirstTask<R> task) {
-        //noinspection unchecked
-        return add0(new TaskHolder<>(this, null, task));
+    @SuppressWarnings({"WeakerAccess", "unchecked"})
+    public <D1, D2, D3, D4> TaskChain<TaskChainDataWrappers.Data4<D1, D2, D3, D4>> parallel(Task<D1, T> a, Task<D2, T> b, Task<D3, T> c, Task<D4, T> d) {
+        return internalFuture(null, (input) -> runParallel(input, a, b, c, d)
+            .thenApply((r) -> multi((D1) r.get(0), (D2) r.get(1), (D3) r.get(2), (D4) r.get(3))));
     }
 
     /**
-     * Execute task on main thread, with the last returned input, returning an output
-     * @param task The task to execute
-     * @param <R> Return type that the next parameter can expect as argument type
+     * {@link TaskChain#parallel(Task, Task)} with 5 tasks
      */
-    @SuppressWarnings("WeakerAccess")
-    public <R> TaskChain<R> sync(Task<R, T> task) {
-        //noinspection unchecked
-        return add0(new TaskHolder<>(this, false, task));
+    @SuppressWarnings({"WeakerAccess", "unchecked"})
+    public <D1, D2, D3, D4, D5> TaskChain<TaskChainDataWrappers.Data5<D1, D2, D3, D4, D5>> parallel(Task<D1, T> a, Task<D2, T> b, Task<D3, T> c, Task<D4, T> d, Task<D5, T> e) {
+        return internalFuture(null, (input) -> runParallel(input, a, b, c, d, e)
+            .thenApply((r) -> multi((D1) r.get(0), (D2) r.get(1), (D3) r.get(2), (D4) r.get(3), (D5) r.get(4))));
     }
 
     /**
-     * Execute task on main thread, with no input or output
-     * @param task The task to execute
+     * {@link TaskChain#parallel(Task, Task)} with 6 tasks
      */
-    @SuppressWarnings("WeakerAccess")
-    public TaskChain<?> sync(GenericTask task) {
-        return add0(new TaskHolder<>(this, false, task));
+    @SuppressWarnings({"WeakerAccess", "unchecked"})
+    public <D1, D2, D3, D4, D5, D6> TaskChain<TaskChainDataWrappers.Data6<D1, D2, D3, D4, D5, D6>> parallel(Task<D1, T> a, Task<D2, T> b, Task<D3, T> c, Task<D4, T> d, Task<D5, T> e, Task<D6, T> f) {
+        return internalFuture(null, (input) -> runParallel(input, a, b, c, d, e, f)
+            .thenApply((r) -> multi((D1) r.get(0), (D2) r.get(1), (D3) r.get(2), (D4) r.get(3), (D5) r.get(4), (D6) r.get(5))));
     }
-
+    // </editor-fold>
+    // <editor-fold desc="// API Methods - Hedged">
     /**
-     * {@link TaskChain#sync(Task)} but ran off main thread
+     * Runs the task off main thread (or starts it, for a future task), and if it has not finished after hedgeAfter,
+     * starts another copy of it, up to maxCopies at once. The first copy to succeed is passed to the next task,
+     * and the others are cancelled. A copy that fails starts the next copy right away, and the chain only fails
+     * once every copy has failed.
+     *
+     * The task must be safe to run more than once at the same time, such as a read.
+     *
      * @param task The task to execute
+     * @param hedgeAfter How long to wait on a copy before starting another
+     * @param unit The units of hedgeAfter
+     * @param maxCopies Maximum number of copies to start, including the first
      * @param <R> Return type that the next parameter can expect as argument type
      */
     @SuppressWarnings("WeakerAccess")
-    public <R> TaskChain<R> async(Task<R, T> task) {
-        //noinspection unchecked
-        return add0(new TaskHolder<>(this, true, task));
+    public <R> TaskChain<R> hedged(Task<R, T> task, long hedgeAfter, TimeUnit unit, int maxCopies) {
+        if (maxCopies < 1) {
+            throw new IllegalArgumentException("maxCopies must be at least 1");
+        }
+        return internalFuture(null, (input) -> new Hedge<>(task, input, unit.toNanos(hedgeAfter), maxCopies).start());
     }
-
+    // </editor-fold>
+    // <editor-fold desc="// API Methods - Circuit Breakers">
     /**
-     * {@link TaskChain#sync(GenericTask)} but ran off main thread
+     * Runs the task off main thread (or starts it, for a future task), guarded by the named circuit breaker.
+     *
+     * The outcome and duration of the task are recorded on the breaker. While the breaker is open, the task is
+     * not ran, and the error handler receives a {@link CircuitBreakerOpenException} instead.
+     *
+     * @param breaker Name of a breaker registered with {@link TaskChainFactory#registerCircuitBreaker(String, TaskChainCircuitBreaker)}
      * @param task The task to execute
+     * @param <R> Return type that the next parameter can expect as argument type
      */
     @SuppressWarnings("WeakerAccess")
-    public TaskChain<?> async(GenericTask task) {
-        return add0(new TaskHolder<>(this, true, task));
+    public <R> TaskChain<R> asyncGuarded(String breaker, Task<R, T> task) {
+        return asyncGuarded(breaker, task, null);
     }
 
     /**
-     * {@link TaskChain#sync(Task)} but ran on current thread the Chain was created on
+     * {@link TaskChain#asyncGuarded(String, Task)}, but runs the fallback on the current thread while the breaker is open
+     *
+     * @param breaker Name of a breaker registered with {@link TaskChainFactory#registerCircuitBreaker(String, TaskChainCircuitBreaker)}
      * @param task The task to execute
+     * @param fallback The task to execute instead while the breaker is open, such as returning a cached value
      * @param <R> Return type that the next parameter can expect as argument type
      */
     @SuppressWarnings("WeakerAccess")
-    public <R> TaskChain<R> current(Task<R, T> task) {
-        //noinspection unchecked
-        return add0(new TaskHolder<>(this, null, task));
+    public <R> TaskChain<R> asyncGuarded(String breaker, Task<R, T> task, Task<R, T> fallback) {
+        return internalFuture(null, (input) -> {
+            final TaskChainCircuitBreaker circuitBreaker = factory.getCircuitBreaker(breaker);
+            if (circuitBreaker == null) {
+                throw new IllegalArgumentException("No circuit breaker registered named " + breaker);
+            }
+            if (!circuitBreaker.tryAcquire()) {
+                if (fallback != null) {
+                    return CompletableFuture.completedFuture(fallback.run(input));
+                }
+                final CompletableFuture<R> failed = new CompletableFuture<>();
+                failed.completeExceptionally(new CircuitBreakerOpenException(breaker));
+                return failed;
+            }
+            // Timed from when the task starts, so time spent waiting on the async queue does not count as slow
+            final AtomicLong start = new AtomicLong(System.nanoTime());
+            final Task<R, T> timed;
+            if (task instanceof FutureTask) {
+                timed = (FutureTask<R, T>) (in) -> {
+                    start.set(System.nanoTime());
+                    return ((FutureTask<R, T>) task).runFuture(in);
+                };
+            } else {
+                timed = (in) -> {
+                    start.set(System.nanoTime());
+                    return task.run(in);
+                };
+            }
+            // Recorded before the chain continues, so the next call sees this outcome
+            return runTaskAsFuture(timed, input).whenComplete((r, e) -> {
+                if (e != null && TaskChainFutures.unwrap(e) instanceof AbortChainException) {
+                    circuitBreaker.release();
+                } else {
+                    circuitBreaker.record(e != null, System.nanoTime() - start.get());
+                }
+            });
+        });
     }
-
+    // </editor-fold>
+    // <editor-fold desc="// API Methods - Debounce">
     /**
-     * {@link TaskChain#sync(GenericTask)} but ran on current thread the Chain was created on
-     * @param task The task to execute
+     * Holds the chain until no other chain has reached a debounce step with the same key for the window,
+     * so a burst of chains for a key only continues once, with the last one's input.
+     * Every chain but the last aborts, and its done handler receives false.
+     *
+     * Keys are shared by every chain of the factory, so include something unique to the step,
+     * such as "inventory:" + the player's UUID.
+     *
+     * @param keyFn Returns the key to debounce by for the last output
+     * @param window How long to wait for another chain with the same key
+     * @param unit The units of window
      */
     @SuppressWarnings("WeakerAccess")
-    public TaskChain<?> current(GenericTask task) {
-        return add0(new TaskHolder<>(this, null, task));
+    public TaskChain<T> debounce(Function<T, ?> keyFn, long window, TimeUnit unit) {
+        return internalFuture(null, (input) -> factory.getKeyedTimers().debounce(keyFn.apply(input), input, unit.toNanos(window)));
     }
 
-
     /**
-     * Execute task on main thread, with the last output, and no furthur output
-     * @param task The task to execute
+     * Lets at most one chain per key continue every interval. The first chain with a key continues right away,
+     * and the last to arrive during the interval continues when it ends. Every other chain aborts,
+     * and its done handler receives false.
+     *
+     * Keys are shared by every chain of the factory, so include something unique to the step,
+     * such as "move:" + the player's UUID.
+     *
+     * @param keyFn Returns the key to throttle by for the last output
+     * @param interval Minimum time between chains with the same key continuing
+     * @param unit The units of interval
      */
     @SuppressWarnings("WeakerAccess")
-    public TaskChain<?> syncLast(LastTask<T> task) {
-        return add0(new TaskHolder<>(this, false, task));
+    public TaskChain<T> throttle(Function<T, ?> keyFn, long interval, TimeUnit unit) {
+        return internalFuture(null, (input) -> factory.getKeyedTimers().throttle(keyFn.apply(input), input, unit.toNanos(interval)));
     }
-
+    // </editor-fold>
+    // <editor-fold desc="// API Methods - Graph">
     /**
-     * {@link TaskChain#syncLast(LastTask)} but ran off main thread
-     * @param task The task to execute
+     * Runs the tasks of the graph, each as soon as the tasks it depends on have finished, with the last output as the graph's input.
+     * The next task receives the results of every task in the graph.
+     *
+     * @param graph The graph to run
      */
     @SuppressWarnings("WeakerAccess")
-    public TaskChain<?> asyncLast(LastTask<T> task) {
-        return add0(new TaskHolder<>(this, true, task));
+    public TaskChain<TaskGraph.Results> graph(TaskGraph graph) {
+        return internalFuture(null, (input) -> graph.run(this, factory, input));
     }
-
+    // </editor-fold>
+    // <editor-fold desc="// API Methods - Files">
     /**
-     * {@link TaskChain#syncLast(LastTask)} but ran on current thread the Chain was created on
-     * @param task The task to execute
+     * Reads the whole file off main thread without blocking an async queue thread, and passes its contents to the next task
+     * @param path The file to read
      */
     @SuppressWarnings("WeakerAccess")
-    public TaskChain<?> currentLast(LastTask<T> task) {
-        return add0(new TaskHolder<>(this, null, task));
+    public TaskChain<byte[]> asyncReadFile(Path path) {
+        return asyncReadFile(path, (buffer) -> {
+            final byte[] bytes = new byte[buffer.remaining()];
+            buffer.get(bytes);
+            return bytes;
+        });
     }
 
     /**
-     * Finished adding tasks, begins executing them.
-     */
-    @SuppressWarnings("WeakerAccess")
+     * Reads the whole file off main thread without blocking an async queue thread, and passes it to the reader.
+     *
+     * The reader runs on the async queue once the read completes, and the buffer is reused once the reader returns,
+     * so the reader must not keep a reference to it.
+     *
+     * @param path The file to read
+     * @param reader Task to convert the file contents into the result passed to the next task
+     * @param <R> Return type that the next parameter can expect as argument type
+     */
+    @SuppressWarnings("WeakerAccess")
+    public <R> TaskChain<R> asyncReadFile(Path path, Task<R, ByteBuffer> reader) {
+        return asyncReadFile(path, reader, false);
+    }
+
+    /**
+     * {@link TaskChain#asyncReadFile(Path, Task)}, optionally memory mapping the file instead of reading it into a buffer.
+     *
+     * Mapping suits large files where the reader only touches part of the contents.
+     *
+     * @param path The file to read
+     * @param reader Task to convert the file contents into the result passed to the next task
+     * @param mapped Whether to memory map the file
+     * @param <R> Return type that the next parameter can expect as argument type
+     */
+    @SuppressWarnings("WeakerAccess")
+    public <R> TaskChain<R> asyncReadFile(Path path, Task<R, ByteBuffer> reader, boolean mapped) {
+        return asyncFuture((input) -> TaskChainFiles.read(impl, path, reader, mapped));
+    }
+
+    /**
+     * Writes the remaining bytes of data to the file off main thread without blocking an async queue thread,
+     * replacing its contents. The next task receives the number of bytes written.
+     *
+     * The data buffer's position is not changed, and it must not be modified until the write is done.
+     *
+     * @param path The file to write
+     * @param data The bytes to write
+     */
+    @SuppressWarnings("WeakerAccess")
+    public TaskChain<Integer> asyncWriteFile(Path path, ByteBuffer data) {
+        return asyncFuture((input) -> TaskChainFiles.write(impl, path, data));
+    }
+    // </editor-fold>
+    // <editor-fold desc="// API Methods - Write Behind">
+    /**
+     * Stores the previous task's return value in the write behind buffer under the key from keyFn,
+     * replacing any value for that key that has not been written yet. The value is passed on to the next task.
+     *
+     * Runs on the current thread, as it only stores the value in memory.
+     *
+     * @param buffer The buffer created by {@link TaskChainFactory#newWriteBehindBuffer(Consumer, int, int)}
+     * @param keyFn Returns the key to store the value under
+     */
+    @SuppressWarnings("WeakerAccess")
+    public <K> TaskChain<T> writeBehind(WriteBehindBuffer<K, ? super T> buffer, Function<T, K> keyFn) {
+        return current((input) -> {
+            buffer.put(keyFn.apply(input), input);
+            return input;
+        });
+    }
+    // </editor-fold>
+    // <editor-fold desc="// API Methods - Streams">
+    /* ======================================================================================== */
+    // Streams
+    /* ======================================================================================== */
+
+    /**
+     * Streams the elements of the supplied Iterator through this chain without loading them all at once.
+     *
+     * Elements are pulled off the main thread as room opens up in the in-flight window, passed through
+     * any async transform stages, and then consumed on the main thread a configurable number per tick.
+     *
+     * Example: Plugin.newChain().stream(rows)
+     *     .maxInFlight(128)
+     *     .async(this::loadRow)
+     *     .syncSink(this::applyRow, 50)
+     *     .syncLast((count) -> log("Migrated " + count))
+     *     .execute();
+     *
+     * @param source The elements to stream. Only ever accessed by one thread at a time.
+     * @param <E> Element type of the stream
+     * @return A stream builder, finished with {@link TaskChainStream#syncSink(LastTask, int)}
+     */
+    @SuppressWarnings("WeakerAccess")
+    public <E> TaskChainStream<E> stream(Iterator<E> source) {
+        return new TaskChainStream<>(this, this.factory, source);
+    }
+
+    /**
+     * {@link TaskChain#stream(Iterator)} but for a Spliterator source
+     * @param source The elements to stream
+     * @param <E> Element type of the stream
+     */
+    @SuppressWarnings("WeakerAccess")
+    public <E> TaskChainStream<E> stream(Spliterator<E> source) {
+        return stream(Spliterators.iterator(source));
+    }
+
+    // </editor-fold>
+    // <editor-fold desc="// API Methods - Chunked Iteration">
+    /* ======================================================================================== */
+    // Chunked Iteration
+    /* ======================================================================================== */
+
+    /**
+     * Runs the consumer on the main thread for every element of the collection, but only processes
+     * perTick elements per game unit, resuming on the following game unit until the collection is exhausted.
+     *
+     * Use this for large batches of main thread work, such as block changes, that would cause lag if ran in one task.
+     * The collection is passed to the next task once every element has been processed.
+     *
+     * The collection must not be modified while it is being iterated.
+     *
+     * @param collection The elements to process
+     * @param consumer The action to run for each element
+     * @param perTick Maximum number of elements to process per game unit
+     * @param <E> Element type of the collection
+     * @param <C> Collection type that the next parameter can expect as argument type
+     */
+    @SuppressWarnings("WeakerAccess")
+    public <E, C extends Collection<E>> TaskChain<C> syncForEachChunked(C collection, Consumer<E> consumer, int perTick) {
+        if (perTick < 1) {
+            throw new IllegalArgumentException("perTick must be at least 1");
+        }
+        return internalFuture(false, (input) -> new ChunkedForEach<>(collection, consumer, perTick, 0).start());
+    }
+
+    /**
+     * {@link TaskChain#syncForEachChunked(Collection, Consumer, int)} but limited by time spent per game unit
+     * instead of a fixed number of elements. At least one element is processed every game unit.
+     *
+     * @param collection The elements to process
+     * @param consumer The action to run for each element
+     * @param budget How long to process elements for per game unit
+     * @param unit Unit of the budget
+     * @param <E> Element type of the collection
+     * @param <C> Collection type that the next parameter can expect as argument type
+     */
+    @SuppressWarnings("WeakerAccess")
+    public <E, C extends Collection<E>> TaskChain<C> syncForEachChunked(C collection, Consumer<E> consumer, long budget, TimeUnit unit) {
+        final long budgetNanos = unit.toNanos(budget);
+        if (budgetNanos < 1) {
+            throw new IllegalArgumentException("budget must be positive");
+        }
+        return internalFuture(false, (input) -> new ChunkedForEach<>(collection, consumer, 0, budgetNanos).start());
+    }
+
+    // </editor-fold>
+    // <editor-fold desc="// API Methods - Regions">
+    /* ======================================================================================== */
+    // Region Tasks
+    /* ======================================================================================== */
+
+    /**
+     * Execute task on the thread that owns the supplied region, with no input, returning an output.
+     *
+     * On platforms that tick regions of the world in parallel, this runs the task on that region's thread.
+     * Every other platform runs it on the main thread, the same as {@link TaskChain#syncFirst(FirstTask)}
+     *
+     * @param regionKey Platform specific key identifying the region, see {@link GameInterface#postToRegion(Object, Runnable)}
+     * @param task The task to execute
+     * @param <R> Return type that the next parameter can expect as argument type
+     */
+    @SuppressWarnings("WeakerAccess")
+    public <R> TaskChain<R> syncFirstAt(Object regionKey, FirstTask<R> task) {
+        return addTask(new TaskHolder<>(this, false, Objects.requireNonNull(regionKey, "regionKey"), task));
+    }
+
+    /**
+     * Execute task on the thread that owns the supplied region, with the last returned input, returning an output
+     * @see TaskChain#syncFirstAt(Object, FirstTask)
+     * @param regionKey Platform specific key identifying the region
+     * @param task The task to execute
+     * @param <R> Return type that the next parameter can expect as argument type
+     */
+    @SuppressWarnings("WeakerAccess")
+    public <R> TaskChain<R> syncAt(Object regionKey, Task<R, T> task) {
+        return addTask(new TaskHolder<>(this, false, Objects.requireNonNull(regionKey, "regionKey"), task));
+    }
+
+    /**
+     * Execute task on the thread that owns the supplied region, with no input or output
+     * @see TaskChain#syncFirstAt(Object, FirstTask)
+     * @param regionKey Platform specific key identifying the region
+     * @param task The task to execute
+     */
+    @SuppressWarnings("WeakerAccess")
+    public TaskChain<?> syncAt(Object regionKey, GenericTask task) {
+        return add0(new TaskHolder<>(this, false, Objects.requireNonNull(regionKey, "regionKey"), task));
+    }
+
+    /**
+     * Execute task on the thread that owns the supplied region, with the last output, and no furthur output
+     * @see TaskChain#syncFirstAt(Object, FirstTask)
+     * @param regionKey Platform specific key identifying the region
+     * @param task The task to execute
+     */
+    @SuppressWarnings("WeakerAccess")
+    public TaskChain<?> syncLastAt(Object regionKey, LastTask<T> task) {
+        return add0(new TaskHolder<>(this, false, Objects.requireNonNull(regionKey, "regionKey"), task));
+    }
+
+    // </editor-fold>
+    // <editor-fold desc="// API Methods - Primitives">
+    /* ======================================================================================== */
+    // Primitive Tasks
+    /* ======================================================================================== */
+
+    /**
+     * Execute task on main thread, with the last returned int, returning a int that is passed to the next task without boxing
+     * @param task The task to execute
+     */
+    @SuppressWarnings("WeakerAccess")
+    public TaskChain<Integer> syncInt(IntTask task) {
+        return addTask(new TaskHolder<>(this, false, task));
+    }
+
+    /**
+     * Execute task on main thread, with no input, returning a int that is passed to the next task without boxing
+     * @param task The task to execute
+     */
+    @SuppressWarnings("WeakerAccess")
+    public TaskChain<Integer> syncFirstInt(IntFirstTask task) {
+        return addTask(new TaskHolder<>(this, false, task));
+    }
+
+    /**
+     * Execute task on main thread, with the last returned int, and no furthur output
+     * @param task The task to execute
+     */
+    @SuppressWarnings("WeakerAccess")
+    public TaskChain<?> syncLastInt(IntLastTask task) {
+        return addTask(new TaskHolder<>(this, false, task));
+    }
+
+    /**
+     * Execute task off main thread, with the last returned int, returning a int that is passed to the next task without boxing
+     * @param task The task to execute
+     */
+    @SuppressWarnings("WeakerAccess")
+    public TaskChain<Integer> asyncInt(IntTask task) {
+        return addTask(new TaskHolder<>(this, true, task));
+    }
+
+    /**
+     * Execute task off main thread, with no input, returning a int that is passed to the next task without boxing
+     * @param task The task to execute
+     */
+    @SuppressWarnings("WeakerAccess")
+    public TaskChain<Integer> asyncFirstInt(IntFirstTask task) {
+        return addTask(new TaskHolder<>(this, true, task));
+    }
+
+    /**
+     * Execute task off main thread, with the last returned int, and no furthur output
+     * @param task The task to execute
+     */
+    @SuppressWarnings("WeakerAccess")
+    public TaskChain<?> asyncLastInt(IntLastTask task) {
+        return addTask(new TaskHolder<>(this, true, task));
+    }
+
+    /**
+     * Execute task on current thread the Chain was created on, with the last returned int, returning a int that is passed to the next task without boxing
+     * @param task The task to execute
+     */
+    @SuppressWarnings("WeakerAccess")
+    public TaskChain<Integer> currentInt(IntTask task) {
+        return addTask(new TaskHolder<>(this, null, task));
+    }
+
+    /**
+     * Execute task on current thread the Chain was created on, with no input, returning a int that is passed to the next task without boxing
+     * @param task The task to execute
+     */
+    @SuppressWarnings("WeakerAccess")
+    public TaskChain<Integer> currentFirstInt(IntFirstTask task) {
+        return addTask(new TaskHolder<>(this, null, task));
+    }
+
+    /**
+     * Execute task on current thread the Chain was created on, with the last returned int, and no furthur output
+     * @param task The task to execute
+     */
+    @SuppressWarnings("WeakerAccess")
+    public TaskChain<?> currentLastInt(IntLastTask task) {
+        return addTask(new TaskHolder<>(this, null, task));
+    }
+
+    /**
+     * Execute task on main thread, with the last returned long, returning a long that is passed to the next task without boxing
+     * @param task The task to execute
+     */
+    @SuppressWarnings("WeakerAccess")
+    public TaskChain<Long> syncLong(LongTask task) {
+        return addTask(new TaskHolder<>(this, false, task));
+    }
+
+    /**
+     * Execute task on main thread, with no input, returning a long that is passed to the next task without boxing
+     * @param task The task to execute
+     */
+    @SuppressWarnings("WeakerAccess")
+    public TaskChain<Long> syncFirstLong(LongFirstTask task) {
+        return addTask(new TaskHolder<>(this, false, task));
+    }
+
+    /**
+     * Execute task on main thread, with the last returned long, and no furthur output
+     * @param task The task to execute
+     */
+    @SuppressWarnings("WeakerAccess")
+    public TaskChain<?> syncLastLong(LongLastTask task) {
+        return addTask(new TaskHolder<>(this, false, task));
+    }
+
+    /**
+     * Execute task off main thread, with the last returned long, returning a long that is passed to the next task without boxing
+     * @param task The task to execute
+     */
+    @SuppressWarnings("WeakerAccess")
+    public TaskChain<Long> asyncLong(LongTask task) {
+        return addTask(new TaskHolder<>(this, true, task));
+    }
+
+    /**
+     * Execute task off main thread, with no input, returning a long that is passed to the next task without boxing
+     * @param task The task to execute
+     */
+    @SuppressWarnings("WeakerAccess")
+    public TaskChain<Long> asyncFirstLong(LongFirstTask task) {
+        return addTask(new TaskHolder<>(this, true, task));
+    }
+
+    /**
+     * Execute task off main thread, with the last returned long, and no furthur output
+     * @param task The task to execute
+     */
+    @SuppressWarnings("WeakerAccess")
+    public TaskChain<?> asyncLastLong(LongLastTask task) {
+        return addTask(new TaskHolder<>(this, true, task));
+    }
+
+    /**
+     * Execute task on current thread the Chain was created on, with the last returned long, returning a long that is passed to the next task without boxing
+     * @param task The task to execute
+     */
+    @SuppressWarnings("WeakerAccess")
+    public TaskChain<Long> currentLong(LongTask task) {
+        return addTask(new TaskHolder<>(this, null, task));
+    }
+
+    /**
+     * Execute task on current thread the Chain was created on, with no input, returning a long that is passed to the next task without boxing
+     * @param task The task to execute
+     */
+    @SuppressWarnings("WeakerAccess")
+    public TaskChain<Long> currentFirstLong(LongFirstTask task) {
+        return addTask(new TaskHolder<>(this, null, task));
+    }
+
+    /**
+     * Execute task on current thread the Chain was created on, with the last returned long, and no furthur output
+     * @param task The task to execute
+     */
+    @SuppressWarnings("WeakerAccess")
+    public TaskChain<?> currentLastLong(LongLastTask task) {
+        return addTask(new TaskHolder<>(this, null, task));
+    }
+
+    /**
+     * Execute task on main thread, with the last returned double, returning a double that is passed to the next task without boxing
+     * @param task The task to execute
+     */
+    @SuppressWarnings("WeakerAccess")
+    public TaskChain<Double> syncDouble(DoubleTask task) {
+        return addTask(new TaskHolder<>(this, false, task));
+    }
+
+    /**
+     * Execute task on main thread, with no input, returning a double that is passed to the next task without boxing
+     * @param task The task to execute
+     */
+    @SuppressWarnings("WeakerAccess")
+    public TaskChain<Double> syncFirstDouble(DoubleFirstTask task) {
+        return addTask(new TaskHolder<>(this, false, task));
+    }
+
+    /**
+     * Execute task on main thread, with the last returned double, and no furthur output
+     * @param task The task to execute
+     */
+    @SuppressWarnings("WeakerAccess")
+    public TaskChain<?> syncLastDouble(DoubleLastTask task) {
+        return addTask(new TaskHolder<>(this, false, task));
+    }
+
+    /**
+     * Execute task off main thread, with the last returned double, returning a double that is passed to the next task without boxing
+     * @param task The task to execute
+     */
+    @SuppressWarnings("WeakerAccess")
+    public TaskChain<Double> asyncDouble(DoubleTask task) {
+        return addTask(new TaskHolder<>(this, true, task));
+    }
+
+    /**
+     * Execute task off main thread, with no input, returning a double that is passed to the next task without boxing
+     * @param task The task to execute
+     */
+    @SuppressWarnings("WeakerAccess")
+    public TaskChain<Double> asyncFirstDouble(DoubleFirstTask task) {
+        return addTask(new TaskHolder<>(this, true, task));
+    }
+
+    /**
+     * Execute task off main thread, with the last returned double, and no furthur output
+     * @param task The task to execute
+     */
+    @SuppressWarnings("WeakerAccess")
+    public TaskChain<?> asyncLastDouble(DoubleLastTask task) {
+        return addTask(new TaskHolder<>(this, true, task));
+    }
+
+    /**
+     * Execute task on current thread the Chain was created on, with the last returned double, returning a double that is passed to the next task without boxing
+     * @param task The task to execute
+     */
+    @SuppressWarnings("WeakerAccess")
+    public TaskChain<Double> currentDouble(DoubleTask task) {
+        return addTask(new TaskHolder<>(this, null, task));
+    }
+
+    /**
+     * Execute task on current thread the Chain was created on, with no input, returning a double that is passed to the next task without boxing
+     * @param task The task to execute
+     */
+    @SuppressWarnings("WeakerAccess")
+    public TaskChain<Double> currentFirstDouble(DoubleFirstTask task) {
+        return addTask(new TaskHolder<>(this, null, task));
+    }
+
+    /**
+     * Execute task on current thread the Chain was created on, with the last returned double, and no furthur output
+     * @param task The task to execute
+     */
+    @SuppressWarnings("WeakerAccess")
+    public TaskChain<?> currentLastDouble(DoubleLastTask task) {
+        return addTask(new TaskHolder<>(this, null, task));
+    }
+
+    // </editor-fold>
+    // <editor-fold desc="// API Methods - Multiple Values">
+    /* ======================================================================================== */
+    // Tasks that receive emitted values
+    /* ======================================================================================== */
+
+    /**
+     * Execute task on main thread, with the 2 values emitted or returned by the last task, and returning a response
+     * @param task The task to execute
+     * @param <R> Return type that the next parameter can expect as argument type
+     */
+    @SuppressWarnings("WeakerAccess")
+    public <R, D1, D2> TaskChain<R> sync2(Task2<R, D1, D2> task) {
+        return addTask(new TaskHolder<>(this, false, task));
+    }
+
+    /**
+     * Execute task on main thread, with the 2 values emitted or returned by the last task, and no furthur output
+     * @param task The task to execute
+     */
+    @SuppressWarnings("WeakerAccess")
+    public <D1, D2> TaskChain<?> syncLast2(LastTask2<D1, D2> task) {
+        return addTask(new TaskHolder<>(this, false, task));
+    }
+
+    /**
+     * Execute task off main thread, with the 2 values emitted or returned by the last task, and returning a response
+     * @param task The task to execute
+     * @param <R> Return type that the next parameter can expect as argument type
+     */
+    @SuppressWarnings("WeakerAccess")
+    public <R, D1, D2> TaskChain<R> async2(Task2<R, D1, D2> task) {
+        return addTask(new TaskHolder<>(this, true, task));
+    }
+
+    /**
+     * Execute task off main thread, with the 2 values emitted or returned by the last task, and no furthur output
+     * @param task The task to execute
+     */
+    @SuppressWarnings("WeakerAccess")
+    public <D1, D2> TaskChain<?> asyncLast2(LastTask2<D1, D2> task) {
+        return addTask(new TaskHolder<>(this, true, task));
+    }
+
+    /**
+     * Execute task on current thread the Chain was created on, with the 2 values emitted or returned by the last task, and returning a response
+     * @param task The task to execute
+     * @param <R> Return type that the next parameter can expect as argument type
+     */
+    @SuppressWarnings("WeakerAccess")
+    public <R, D1, D2> TaskChain<R> current2(Task2<R, D1, D2> task) {
+        return addTask(new TaskHolder<>(this, null, task));
+    }
+
+    /**
+     * Execute task on current thread the Chain was created on, with the 2 values emitted or returned by the last task, and no furthur output
+     * @param task The task to execute
+     */
+    @SuppressWarnings("WeakerAccess")
+    public <D1, D2> TaskChain<?> currentLast2(LastTask2<D1, D2> task) {
+        return addTask(new TaskHolder<>(this, null, task));
+    }
+
+    /**
+     * Execute task on main thread, with the 3 values emitted or returned by the last task, and returning a response
+     * @param task The task to execute
+     * @param <R> Return type that the next parameter can expect as argument type
+     */
+    @SuppressWarnings("WeakerAccess")
+    public <R, D1, D2, D3> TaskChain<R> sync3(Task3<R, D1, D2, D3> task) {
+        return addTask(new TaskHolder<>(this, false, task));
+    }
+
+    /**
+     * Execute task on main thread, with the 3 values emitted or returned by the last task, and no furthur output
+     * @param task The task to execute
+     */
+    @SuppressWarnings("WeakerAccess")
+    public <D1, D2, D3> TaskChain<?> syncLast3(LastTask3<D1, D2, D3> task) {
+        return addTask(new TaskHolder<>(this, false, task));
+    }
+
+    /**
+     * Execute task off main thread, with the 3 values emitted or returned by the last task, and returning a response
+     * @param task The task to execute
+     * @param <R> Return type that the next parameter can expect as argument type
+     */
+    @SuppressWarnings("WeakerAccess")
+    public <R, D1, D2, D3> TaskChain<R> async3(Task3<R, D1, D2, D3> task) {
+        return addTask(new TaskHolder<>(this, true, task));
+    }
+
+    /**
+     * Execute task off main thread, with the 3 values emitted or returned by the last task, and no furthur output
+     * @param task The task to execute
+     */
+    @SuppressWarnings("WeakerAccess")
+    public <D1, D2, D3> TaskChain<?> asyncLast3(LastTask3<D1, D2, D3> task) {
+        return addTask(new TaskHolder<>(this, true, task));
+    }
+
+    /**
+     * Execute task on current thread the Chain was created on, with the 3 values emitted or returned by the last task, and returning a response
+     * @param task The task to execute
+     * @param <R> Return type that the next parameter can expect as argument type
+     */
+    @SuppressWarnings("WeakerAccess")
+    public <R, D1, D2, D3> TaskChain<R> current3(Task3<R, D1, D2, D3> task) {
+        return addTask(new TaskHolder<>(this, null, task));
+    }
+
+    /**
+     * Execute task on current thread the Chain was created on, with the 3 values emitted or returned by the last task, and no furthur output
+     * @param task The task to execute
+     */
+    @SuppressWarnings("WeakerAccess")
+    public <D1, D2, D3> TaskChain<?> currentLast3(LastTask3<D1, D2, D3> task) {
+        return addTask(new TaskHolder<>(this, null, task));
+    }
+
+    /**
+     * Execute task on main thread, with the 4 values emitted or returned by the last task, and returning a response
+     * @param task The task to execute
+     * @param <R> Return type that the next parameter can expect as argument type
+     */
+    @SuppressWarnings("WeakerAccess")
+    public <R, D1, D2, D3, D4> TaskChain<R> sync4(Task4<R, D1, D2, D3, D4> task) {
+        return addTask(new TaskHolder<>(this, false, task));
+    }
+
+    /**
+     * Execute task on main thread, with the 4 values emitted or returned by the last task, and no furthur output
+     * @param task The task to execute
+     */
+    @SuppressWarnings("WeakerAccess")
+    public <D1, D2, D3, D4> TaskChain<?> syncLast4(LastTask4<D1, D2, D3, D4> task) {
+        return addTask(new TaskHolder<>(this, false, task));
+    }
+
+    /**
+     * Execute task off main thread, with the 4 values emitted or returned by the last task, and returning a response
+     * @param task The task to execute
+     * @param <R> Return type that the next parameter can expect as argument type
+     */
+    @SuppressWarnings("WeakerAccess")
+    public <R, D1, D2, D3, D4> TaskChain<R> async4(Task4<R, D1, D2, D3, D4> task) {
+        return addTask(new TaskHolder<>(this, true, task));
+    }
+
+    /**
+     * Execute task off main thread, with the 4 values emitted or returned by the last task, and no furthur output
+     * @param task The task to execute
+     */
+    @SuppressWarnings("WeakerAccess")
+    public <D1, D2, D3, D4> TaskChain<?> asyncLast4(LastTask4<D1, D2, D3, D4> task) {
+        return addTask(new TaskHolder<>(this, true, task));
+    }
+
+    /**
+     * Execute task on current thread the Chain was created on, with the 4 values emitted or returned by the last task, and returning a response
+     * @param task The task to execute
+     * @param <R> Return type that the next parameter can expect as argument type
+     */
+    @SuppressWarnings("WeakerAccess")
+    public <R, D1, D2, D3, D4> TaskChain<R> current4(Task4<R, D1, D2, D3, D4> task) {
+        return addTask(new TaskHolder<>(this, null, task));
+    }
+
+    /**
+     * Execute task on current thread the Chain was created on, with the 4 values emitted or returned by the last task, and no furthur output
+     * @param task The task to execute
+     */
+    @SuppressWarnings("WeakerAccess")
+    public <D1, D2, D3, D4> TaskChain<?> currentLast4(LastTask4<D1, D2, D3, D4> task) {
+        return addTask(new TaskHolder<>(this, null, task));
+    }
+
+    /**
+     * Execute task on main thread, with the 5 values emitted or returned by the last task, and returning a response
+     * @param task The task to execute
+     * @param <R> Return type that the next parameter can expect as argument type
+     */
+    @SuppressWarnings("WeakerAccess")
+    public <R, D1, D2, D3, D4, D5> TaskChain<R> sync5(Task5<R, D1, D2, D3, D4, D5> task) {
+        return addTask(new TaskHolder<>(this, false, task));
+    }
+
+    /**
+     * Execute task on main thread, with the 5 values emitted or returned by the last task, and no furthur output
+     * @param task The task to execute
+     */
+    @SuppressWarnings("WeakerAccess")
+    public <D1, D2, D3, D4, D5> TaskChain<?> syncLast5(LastTask5<D1, D2, D3, D4, D5> task) {
+        return addTask(new TaskHolder<>(this, false, task));
+    }
+
+    /**
+     * Execute task off main thread, with the 5 values emitted or returned by the last task, and returning a response
+     * @param task The task to execute
+     * @param <R> Return type that the next parameter can expect as argument type
+     */
+    @SuppressWarnings("WeakerAccess")
+    public <R, D1, D2, D3, D4, D5> TaskChain<R> async5(Task5<R, D1, D2, D3, D4, D5> task) {
+        return addTask(new TaskHolder<>(this, true, task));
+    }
+
+    /**
+     * Execute task off main thread, with the 5 values emitted or returned by the last task, and no furthur output
+     * @param task The task to execute
+     */
+    @SuppressWarnings("WeakerAccess")
+    public <D1, D2, D3, D4, D5> TaskChain<?> asyncLast5(LastTask5<D1, D2, D3, D4, D5> task) {
+        return addTask(new TaskHolder<>(this, true, task));
+    }
+
+    /**
+     * Execute task on current thread the Chain was created on, with the 5 values emitted or returned by the last task, and returning a response
+     * @param task The task to execute
+     * @param <R> Return type that the next parameter can expect as argument type
+     */
+    @SuppressWarnings("WeakerAccess")
+    public <R, D1, D2, D3, D4, D5> TaskChain<R> current5(Task5<R, D1, D2, D3, D4, D5> task) {
+        return addTask(new TaskHolder<>(this, null, task));
+    }
+
+    /**
+     * Execute task on current thread the Chain was created on, with the 5 values emitted or returned by the last task, and no furthur output
+     * @param task The task to execute
+     */
+    @SuppressWarnings("WeakerAccess")
+    public <D1, D2, D3, D4, D5> TaskChain<?> currentLast5(LastTask5<D1, D2, D3, D4, D5> task) {
+        return addTask(new TaskHolder<>(this, null, task));
+    }
+
+    /**
+     * Execute task on main thread, with the 6 values emitted or returned by the last task, and returning a response
+     * @param task The task to execute
+     * @param <R> Return type that the next parameter can expect as argument type
+     */
+    @SuppressWarnings("WeakerAccess")
+    public <R, D1, D2, D3, D4, D5, D6> TaskChain<R> sync6(Task6<R, D1, D2, D3, D4, D5, D6> task) {
+        return addTask(new TaskHolder<>(this, false, task));
+    }
+
+    /**
+     * Execute task on main thread, with the 6 values emitted or returned by the last task, and no furthur output
+     * @param task The task to execute
+     */
+    @SuppressWarnings("WeakerAccess")
+    public <D1, D2, D3, D4, D5, D6> TaskChain<?> syncLast6(LastTask6<D1, D2, D3, D4, D5, D6> task) {
+        return addTask(new TaskHolder<>(this, false, task));
+    }
+
+    /**
+     * Execute task off main thread, with the 6 values emitted or returned by the last task, and returning a response
+     * @param task The task to execute
+     * @param <R> Return type that the next parameter can expect as argument type
+     */
+    @SuppressWarnings("WeakerAccess")
+    public <R, D1, D2, D3, D4, D5, D6> TaskChain<R> async6(Task6<R, D1, D2, D3, D4, D5, D6> task) {
+        return addTask(new TaskHolder<>(this, true, task));
+    }
+
+    /**
+     * Execute task off main thread, with the 6 values emitted or returned by the last task, and no furthur output
+     * @param task The task to execute
+     */
+    @SuppressWarnings("WeakerAccess")
+    public <D1, D2, D3, D4, D5, D6> TaskChain<?> asyncLast6(LastTask6<D1, D2, D3, D4, D5, D6> task) {
+        return addTask(new TaskHolder<>(this, true, task));
+    }
+
+    /**
+     * Execute task on current thread the Chain was created on, with the 6 values emitted or returned by the last task, and returning a response
+     * @param task The task to execute
+     * @param <R> Return type that the next parameter can expect as argument type
+     */
+    @SuppressWarnings("WeakerAccess")
+    public <R, D1, D2, D3, D4, D5, D6> TaskChain<R> current6(Task6<R, D1, D2, D3, D4, D5, D6> task) {
+        return addTask(new TaskHolder<>(this, null, task));
+    }
+
+    /**
+     * Execute task on current thread the Chain was created on, with the 6 values emitted or returned by the last task, and no furthur output
+     * @param task The task to execute
+     */
+    @SuppressWarnings("WeakerAccess")
+    public <D1, D2, D3, D4, D5, D6> TaskChain<?> currentLast6(LastTask6<D1, D2, D3, D4, D5, D6> task) {
+        //noinspection unchecked
+        return add0(new TaskHolder<>(this, null, task));
+    }
+
+    // </editor-fold>
+    // <editor-fold desc="// API Methods - Normal">
+    /* ======================================================================================== */
+    // Normal Tasks
+    /* ======================================================================================== */
+
+    /**
+     * Execute task on main thread, with no input, returning an output
+     * @param task The task to execute
+     * @param <R> Return type that the next parameter can expect as argument type
+     */
+    @SuppressWarnings("WeakerAccess")
+    public <R> TaskChain<R> syncFirst(FirstTask<R> task) {
+        //noinspection unchecked
+        return add0(new TaskHolder<>(this, false, task));
+    }
+
+    /**
+     * {@link TaskChain#syncFirst(FirstTask)} but ran off main thread
+     * @param task The task to execute
+     * @param <R> Return type that the next parameter can expect as argument type
+     */
+    @SuppressWarnings("WeakerAccess")
+    public <R> TaskChain<R> asyncFirst(FirstTask<R> task) {
+        //noinspection unchecked
+        return add0(new TaskHolder<>(this, true, task));
+    }
+
+    /**
+     * {@link TaskChain#syncFirst(FirstTask)} but ran on current thread the Chain was created on
+     * @param task The task to execute
+     * @param <R> Return type that the next parameter can expect as argument type
+     */
+    @SuppressWarnings("WeakerAccess")
+    public <R> TaskChain<R> currentFirst(FirstTask<R> task) {
+        //noinspection unchecked
+        return add0(new TaskHolder<>(this, null, task));
+    }
+
+    /**
+     * Execute task on main thread, with the last returned input, returning an output
+     * @param task The task to execute
+     * @param <R> Return type that the next parameter can expect as argument type
+     */
+    @SuppressWarnings("WeakerAccess")
+    public <R> TaskChain<R> sync(Task<R, T> task) {
+        //noinspection unchecked
+        return add0(new TaskHolder<>(this, false, task));
+    }
+
+    /**
+     * Execute task on main thread, with no input or output
+     * @param task The task to execute
+     */
+    @SuppressWarnings("WeakerAccess")
+    public TaskChain<?> sync(GenericTask task) {
+        return add0(new TaskHolder<>(this, false, task));
+    }
+
+    /**
+     * {@link TaskChain#sync(Task)} but ran off main thread
+     * @param task The task to execute
+     * @param <R> Return type that the next parameter can expect as argument type
+     */
+    @SuppressWarnings("WeakerAccess")
+    public <R> TaskChain<R> async(Task<R, T> task) {
+        //noinspection unchecked
+        return add0(new TaskHolder<>(this, true, task));
+    }
+
+    /**
+     * {@link TaskChain#sync(GenericTask)} but ran off main thread
+     * @param task The task to execute
+     */
+    @SuppressWarnings("WeakerAccess")
+    public TaskChain<?> async(GenericTask task) {
+        return add0(new TaskHolder<>(this, true, task));
+    }
+
+    /**
+     * {@link TaskChain#sync(Task)} but ran on current thread the Chain was created on
+     * @param task The task to execute
+     * @param <R> Return type that the next parameter can expect as argument type
+     */
+    @SuppressWarnings("WeakerAccess")
+    public <R> TaskChain<R> current(Task<R, T> task) {
+        //noinspection unchecked
+        return add0(new TaskHolder<>(this, null, task));
+    }
+
+    /**
+     * {@link TaskChain#sync(GenericTask)} but ran on current thread the Chain was created on
+     * @param task The task to execute
+     */
+    @SuppressWarnings("WeakerAccess")
+    public TaskChain<?> current(GenericTask task) {
+        return add0(new TaskHolder<>(this, null, task));
+    }
+
+
+    /**
+     * Execute task on main thread, with the last output, and no furthur output
+     * @param task The task to execute
+     */
+    @SuppressWarnings("WeakerAccess")
+    public TaskChain<?> syncLast(LastTask<T> task) {
+        return add0(new TaskHolder<>(this, false, task));
+    }
+
+    /**
+     * {@link TaskChain#syncLast(LastTask)} but ran off main thread
+     * @param task The task to execute
+     */
+    @SuppressWarnings("WeakerAccess")
+    public TaskChain<?> asyncLast(LastTask<T> task) {
+        return add0(new TaskHolder<>(this, true, task));
+    }
+
+    /**
+     * {@link TaskChain#syncLast(LastTask)} but ran on current thread the Chain was created on
+     * @param task The task to execute
+     */
+    @SuppressWarnings("WeakerAccess")
+    public TaskChain<?> currentLast(LastTask<T> task) {
+        return add0(new TaskHolder<>(this, null, task));
+    }
+
+    /**
+     * Finished adding tasks, begins executing them.
+     */
+    @SuppressWarnings("WeakerAccess")
     public void execute() {
         execute((Consumer<Boolean>) null, null);
     }
@@ -1126,12 +2433,24 @@ public class TaskChain <T> {
             }
             this.executed = true;
         }
+        if (this.journal != null) {
+            resumeFromJournal();
+        }
         async = !impl.isMainThread();
-        nextTask();
+        if (!async && isSyncOnly()) {
+            runSyncOnly();
+        } else {
+            factory.chainStarted(this);
+            nextTask();
+        }
     }
 
     void done(boolean finished) {
         this.done = true;
+        factory.chainDone(this, finished);
+        if (finished && this.journal != null) {
+            this.journal.complete(this.journalId);
+        }
         if (this.doneCallback != null) {
             final TaskChain<?> prev = currentChain.get();
             try {
@@ -1145,24 +2464,167 @@ public class TaskChain <T> {
         }
     }
 
+    /**
+     * Keeps the tasks of the chain after they run, so it can be {@link #reset()}
+     */
+    synchronized void markRecurring() {
+        this.recurring = true;
+    }
+
+    /**
+     * Readies a finished chain to execute its tasks again, for recurring schedules
+     */
+    synchronized void reset() {
+        if (!this.recurring) {
+            throw new RuntimeException("TaskChain is not recurring");
+        }
+        if (this.executed && !this.done) {
+            throw new RuntimeException("TaskChain is executing");
+        }
+        this.generation++;
+        this.executed = false;
+        this.done = false;
+        this.nextHolder = 0;
+        this.currentActionIndex = 0;
+        this.currentHolder = null;
+        this.previous = null;
+        this.primitive = 0;
+        this.primitiveType = 0;
+        this.emitted = 0;
+        if (this.registers != null) {
+            Arrays.fill(this.registers, null);
+        }
+        this.taskMap = null;
+        this.regionThread = false;
+        this.doneCallback = null;
+        this.errorHandler = null;
+        for (TaskHolder<?, ?> holder : this.chainQueue) {
+            holder.reset();
+        }
+    }
+
+    private TaskHolder<?, ?> lowPriority(TaskHolder<?, ?> holder) {
+        holder.lowPriority = true;
+        factory.getTicker();
+        return holder;
+    }
+
     @SuppressWarnings({"rawtypes", "WeakerAccess"})
     protected TaskChain add0(TaskHolder<?,?> task) {
         synchronized (this) {
             if (this.executed) {
                 throw new RuntimeException("TaskChain is executing");
             }
+            this.chainQueue.add(task);
         }
-
-        this.chainQueue.add(task);
         return this;
     }
 
+    /**
+     * {@link #add0(TaskHolder)} for steps that change the type passed to the next task
+     */
+    @SuppressWarnings("unchecked")
+    private <R> TaskChain<R> addTask(TaskHolder<?, ?> task) {
+        return add0(task);
+    }
+
+    /**
+     * @return If every task left in the chain is a plain sync or current task that returns immediately
+     */
+    private synchronized boolean isSyncOnly() {
+        if (this.lowPriority || this.journal != null) {
+            return false;
+        }
+        for (int i = this.nextHolder; i < this.chainQueue.size(); i++) {
+            final TaskHolder<?, ?> holder = this.chainQueue.get(i);
+            if (holder.async == Boolean.TRUE || holder.regionKey != null || holder.lowPriority
+                    || holder.task instanceof FutureTask || holder.task instanceof AsyncExecutingTask) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Skips the tasks that already ran before a restart, passing the last recorded result to the next task
+     */
+    private void resumeFromJournal() {
+        final TaskChainJournal.Checkpoint checkpoint = this.journal.getCheckpoint(this.journalId);
+        if (checkpoint == null) {
+            return;
+        }
+        final Object result;
+        try {
+            result = checkpoint.getResult();
+        } catch (Exception e) {
+            this.handleError(e, null);
+            return;
+        }
+        synchronized (this) {
+            for (int i = 0; i < this.chainQueue.size(); i++) {
+                if (this.chainQueue.get(i).actionIndex == checkpoint.actionIndex) {
+                    this.nextHolder = i + 1;
+                    this.previous = result;
+                    return;
+                }
+            }
+        }
+    }
+
+    /**
+     * Fast path for chains that are fully synchronous and executed on the main thread.
+     *
+     * Every task runs in a loop on this thread, so there is no thread switching to handle, and
+     * the current chain only needs to be set once instead of around every task.
+     *
+     * The chain is not handed to any other thread on this path, and no more tasks can be added once executed,
+     * so the queue is read without locking. Tasks are released as they finish unless the chain is recurring.
+     */
+    private void runSyncOnly() {
+        final TaskChain<?> prevChain = currentChain.get();
+        currentChain.set(this);
+        try {
+            final boolean release = !this.recurring;
+            while (true) {
+                final int index = this.nextHolder;
+                final TaskHolder<?, ?> holder = index < this.chainQueue.size() ? this.chainQueue.get(index) : null;
+                this.currentHolder = holder;
+                if (holder == null) {
+                    this.done = true;
+                    this.previous = null;
+                    this.done(true);
+                    return;
+                }
+                this.nextHolder = index + 1;
+                if (release) {
+                    this.chainQueue.set(index, null);
+                }
+                this.currentActionIndex = holder.actionIndex;
+                final Object arg = this.previous;
+                this.previous = null;
+                try {
+                    this.previous = holder.call(arg);
+                } catch (Throwable e) {
+                    //noinspection ConstantConditions
+                    if (!(e instanceof AbortChainException)) {
+                        this.handleError(e, holder.task);
+                    }
+                    holder.abort();
+                    return;
+                }
+            }
+        } finally {
+            // Not removed so the thread's entry is reused by the next chain instead of reallocated
+            currentChain.set(prevChain);
+        }
+    }
+
     /**
      * Fires off the next task, and switches between Async/Sync as necessary.
      */
     private void nextTask() {
         synchronized (this) {
-            this.currentHolder = this.chainQueue.poll();
+            this.currentHolder = this.nextHolder < this.chainQueue.size() ? this.chainQueue.get(this.nextHolder++) : null;
             if (this.currentHolder == null) {
                 this.done = true; // to ensure its done while synchronized
             }
@@ -1176,21 +2638,41 @@ public class TaskChain <T> {
         }
 
         Boolean isNextAsync = this.currentHolder.async;
-        if (isNextAsync == null || factory.shutdown) {
+        final Object regionKey = this.currentHolder.regionKey;
+        if (isNextAsync == null) {
             this.currentHolder.run();
+        } else if (factory.shutdown) {
+            nextTaskShutdown(isNextAsync && regionKey == null);
+        } else if (regionKey != null) {
+            if (impl.isOwnedByCurrentThread(regionKey)) {
+                this.currentHolder.run();
+            } else {
+                impl.postToRegion(regionKey, () -> {
+                    this.async = !impl.isMainThread();
+                    this.currentHolder.run();
+                });
+            }
         } else if (isNextAsync) {
-            if (this.async) {
+            if (this.async && !this.regionThread) {
                 this.currentHolder.run();
             } else {
                 impl.postAsync(() -> {
                     this.async = true;
+                    this.regionThread = false;
                     this.currentHolder.run();
                 });
             }
         } else {
-            if (this.async) {
+            if ((this.lowPriority || this.currentHolder.lowPriority) && factory.getTicker().shouldDefer()) {
+                factory.getTicker().defer(() -> {
+                    this.async = false;
+                    this.regionThread = false;
+                    this.currentHolder.run();
+                });
+            } else if (this.async || this.regionThread) {
                 impl.postToMain(() -> {
                     this.async = false;
+                    this.regionThread = false;
                     this.currentHolder.run();
                 });
             } else {
@@ -1199,6 +2681,276 @@ public class TaskChain <T> {
         }
     }
 
+    /**
+     * While shutting down, async tasks still run on the async queue, while sync tasks run on the thread
+     * calling shutdown, as the main thread is no longer ticking.
+     */
+    private void nextTaskShutdown(boolean isNextAsync) {
+        final boolean onAsyncThread = this.async || this.regionThread;
+        if (isNextAsync) {
+            if (onAsyncThread) {
+                this.currentHolder.run();
+            } else {
+                impl.postAsync(() -> {
+                    this.async = true;
+                    this.regionThread = false;
+                    this.currentHolder.run();
+                });
+            }
+        } else if (!onAsyncThread || !factory.postToShutdownThread(() -> {
+                this.async = false;
+                this.regionThread = false;
+                this.currentHolder.run();
+            })) {
+            this.currentHolder.run();
+        }
+    }
+
+    /**
+     * Describes the chain and how far it got, for shutdown reports
+     */
+    String describe() {
+        final TaskHolder<?, ?> holder = this.currentHolder;
+        return getClass().getSimpleName() + "@" + Integer.toHexString(System.identityHashCode(this))
+            + (this.journalId != null ? " (" + this.journalId + ")" : "")
+            + " at action index " + this.currentActionIndex + " of " + this.chainQueue.size()
+            + (holder != null ? " (" + holder.task.getClass().getName() + ")" : "");
+    }
+
+    /**
+     * Converts the primitive passed from the previous task into its boxed form for tasks that expect an Object
+     */
+    private Object boxPrevious(Object arg) {
+        if (arg == EMITTED) {
+            return materializeEmitted();
+        }
+        if (arg != PRIMITIVE) {
+            return arg;
+        }
+        switch (this.primitiveType) {
+            case INT:
+                return (int) this.primitive;
+            case LONG:
+                return this.primitive;
+            default:
+                return Double.longBitsToDouble(this.primitive);
+        }
+    }
+
+    private int intInput(Object arg, Task<?, ?> task) {
+        if (arg != PRIMITIVE) {
+            final Number number = numberInput(arg, task);
+            return number != null ? number.intValue() : 0;
+        }
+        return this.primitiveType == DOUBLE ? (int) Double.longBitsToDouble(this.primitive) : (int) this.primitive;
+    }
+
+    private long longInput(Object arg, Task<?, ?> task) {
+        if (arg != PRIMITIVE) {
+            final Number number = numberInput(arg, task);
+            return number != null ? number.longValue() : 0;
+        }
+        return this.primitiveType == DOUBLE ? (long) Double.longBitsToDouble(this.primitive) : this.primitive;
+    }
+
+    private double doubleInput(Object arg, Task<?, ?> task) {
+        if (arg != PRIMITIVE) {
+            final Number number = numberInput(arg, task);
+            return number != null ? number.doubleValue() : 0;
+        }
+        return this.primitiveType == DOUBLE ? Double.longBitsToDouble(this.primitive) : (double) this.primitive;
+    }
+
+    /**
+     * The boxed result of the previous task, for a primitive task
+     * @return The number, or null if the previous task returned null
+     */
+    private Number numberInput(Object arg, Task<?, ?> task) {
+        if (arg == null || arg instanceof Number) {
+            return (Number) arg;
+        }
+        final String previous;
+        if (arg == EMITTED) {
+            previous = this.emitted + " emitted values";
+            clearEmitted();
+        } else {
+            previous = arg.getClass().getName();
+        }
+        throw new IllegalStateException("Previous task returned " + previous + ", but "
+            + task.getClass().getName() + " at action index " + this.currentActionIndex + " takes a number");
+    }
+
+    /**
+     * The marker returned by emit, as the data wrapper type the caller expects
+     */
+    @SuppressWarnings("unchecked")
+    private static <D> D emittedMarker() {
+        return (D) EMITTED;
+    }
+
+    private Object[] registers() {
+        if (this.registers == null) {
+            this.registers = new Object[6];
+        }
+        return this.registers;
+    }
+
+    /**
+     * Wraps the emitted values for tasks that expect a single argument
+     */
+    private Object materializeEmitted() {
+        final Object[] r = this.registers;
+        final Object data;
+        switch (this.emitted) {
+            case 2:
+                data = multi(r[0], r[1]);
+                break;
+            case 3:
+                data = multi(r[0], r[1], r[2]);
+                break;
+            case 4:
+                data = multi(r[0], r[1], r[2], r[3]);
+                break;
+            case 5:
+                data = multi(r[0], r[1], r[2], r[3], r[4]);
+                break;
+            default:
+                data = multi(r[0], r[1], r[2], r[3], r[4], r[5]);
+                break;
+        }
+        clearEmitted();
+        return data;
+    }
+
+    /**
+     * Passes the emitted values directly to a multi value task
+     * @param arity Number of values the task takes
+     */
+    @SuppressWarnings("unchecked")
+    private Object runEmitted(Task<?, ?> task, int arity) {
+        if (arity != this.emitted) {
+            final int emitted = this.emitted;
+            clearEmitted();
+            throw new IllegalStateException("Previous task emitted " + emitted + " values, but "
+                + task.getClass().getName() + " at action index " + this.currentActionIndex + " takes " + arity);
+        }
+        // Read the values out first, the task may emit new ones
+        final Object[] r = this.registers;
+        final Object r0 = r[0], r1 = r[1], r2 = r[2], r3 = r[3], r4 = r[4], r5 = r[5];
+        clearEmitted();
+        if (task instanceof Task2) {
+            return ((Task2<?, Object, Object>) task).run(r0, r1);
+        } else if (task instanceof Task3) {
+            return ((Task3<?, Object, Object, Object>) task).run(r0, r1, r2);
+        } else if (task instanceof Task4) {
+            return ((Task4<?, Object, Object, Object, Object>) task).run(r0, r1, r2, r3);
+        } else if (task instanceof Task5) {
+            return ((Task5<?, Object, Object, Object, Object, Object>) task).run(r0, r1, r2, r3, r4);
+        } else {
+            return ((Task6<?, Object, Object, Object, Object, Object, Object>) task).run(r0, r1, r2, r3, r4, r5);
+        }
+    }
+
+    private void clearEmitted() {
+        Arrays.fill(this.registers, 0, this.emitted, null);
+        this.emitted = 0;
+    }
+
+    private Object storePrimitive(long value, byte type) {
+        this.primitive = value;
+        this.primitiveType = type;
+        return PRIMITIVE;
+    }
+
+    /**
+     * @return Number of values the task takes, or 0 if it is not a multi value task
+     */
+    private static int multiTaskArity(Task<?, ?> task) {
+        if (task instanceof Task2) {
+            return 2;
+        } else if (task instanceof Task3) {
+            return 3;
+        } else if (task instanceof Task4) {
+            return 4;
+        } else if (task instanceof Task5) {
+            return 5;
+        } else if (task instanceof Task6) {
+            return 6;
+        }
+        return 0;
+    }
+
+    /**
+     * Sets the chain returned by {@link #getCurrentChain()} on this thread
+     * @return The chain that was set before
+     */
+    static TaskChain<?> swapCurrentChain(TaskChain<?> chain) {
+        final TaskChain<?> prev = currentChain.get();
+        currentChain.set(chain);
+        return prev;
+    }
+
+    /**
+     * Starts every task with the input, completing with their results in order
+     */
+    @SafeVarargs
+    @SuppressWarnings("unchecked")
+    private final CompletableFuture<List<Object>> runParallel(T input, Task<?, T>... tasks) {
+        final List<CompletableFuture<Object>> futures = new ArrayList<>(tasks.length);
+        for (Task<?, T> task : tasks) {
+            futures.add(runTaskAsFuture((Task<Object, T>) task, input));
+        }
+        return TaskChainFutures.all(futures, true);
+    }
+
+    /**
+     * Starts the task with the input, running it on the async queue unless it is a future task
+     */
+    private <R> CompletableFuture<R> runTaskAsFuture(Task<R, T> task, T input) {
+        final CompletableFuture<R> future = new CompletableFuture<>();
+        final Runnable run = () -> {
+            if (future.isDone()) {
+                // Cancelled while queued, such as a hedged copy that lost
+                return;
+            }
+            final TaskChain<?> prevChain = currentChain.get();
+            currentChain.set(this);
+            try {
+                if (task instanceof FutureTask) {
+                    final CompletableFuture<R> result = ((FutureTask<R, T>) task).runFuture(input);
+                    if (result == null) {
+                        future.complete(null);
+                    } else {
+                        future.whenComplete((r, e) -> {
+                            if (future.isCancelled()) {
+                                result.cancel(true);
+                            }
+                        });
+                        result.whenComplete((r, e) -> {
+                            if (e != null) {
+                                future.completeExceptionally(e);
+                            } else {
+                                future.complete(r);
+                            }
+                        });
+                    }
+                } else {
+                    future.complete(task.run(input));
+                }
+            } catch (Throwable e) {
+                future.completeExceptionally(e);
+            } finally {
+                currentChain.set(prevChain);
+            }
+        };
+        if (task instanceof FutureTask) {
+            run.run();
+        } else {
+            impl.postAsync(run);
+        }
+        return future;
+    }
+
     private void handleError(Throwable throwable, Task<?, ?> task) {
         Exception e = throwable instanceof Exception ? (Exception) throwable : new Exception(throwable);
         if (errorHandler != null) {
@@ -1222,37 +2974,165 @@ public class TaskChain <T> {
 
     private void abortExecutingChain() {
         this.previous = null;
-        this.chainQueue.clear();
+        synchronized (this) {
+            this.nextHolder = this.chainQueue.size();
+        }
         this.done(false);
     }
 
     private <R> CompletableFuture<List<R>> getFuture(List<CompletableFuture<R>> futures) {
-        CompletableFuture<List<R>> onDone = new CompletableFuture<>();
-        CompletableFuture<?>[] futureArray = new CompletableFuture<?>[futures.size()];
-        CompletableFuture.allOf((CompletableFuture<?>[]) futures.toArray(futureArray)).whenComplete((aVoid, throwable) -> {
-            if (throwable != null) {
-                onDone.completeExceptionally(throwable);
-            } else {
-                boolean[] error = {false};
-                final List<R> results = futures.stream().map(f -> {
-                    try {
-                        return f.join();
-                    } catch (Exception e) {
-                        error[0] = true;
-                        TaskChain.this.handleError(e, TaskChain.this.currentHolder.task);
-                        return null;
+        return TaskChainFutures.all(futures, false);
+    }
+
+    // </editor-fold>
+    /* ======================================================================================== */
+    // <editor-fold desc="// ChunkedForEach">
+    /**
+     * Processes a collection on the main thread in slices, one slice per game unit.
+     * @param <E> Element type
+     * @param <C> Collection type
+     */
+    private class ChunkedForEach<E, C extends Collection<E>> implements Runnable {
+        private final CompletableFuture<C> future = new CompletableFuture<>();
+        private final C collection;
+        private final Iterator<E> iterator;
+        private final Consumer<E> consumer;
+        private final int perTick;
+        private final long budgetNanos;
+
+        private ChunkedForEach(C collection, Consumer<E> consumer, int perTick, long budgetNanos) {
+            this.collection = collection;
+            this.iterator = collection.iterator();
+            this.consumer = consumer;
+            this.perTick = perTick;
+            this.budgetNanos = budgetNanos;
+        }
+
+        private CompletableFuture<C> start() {
+            run();
+            return this.future;
+        }
+
+        @Override
+        public void run() {
+            final TaskChain<?> prevChain = currentChain.get();
+            try {
+                currentChain.set(TaskChain.this);
+                final long start = this.budgetNanos > 0 ? System.nanoTime() : 0;
+                int count = 0;
+                while (this.iterator.hasNext()) {
+                    this.consumer.accept(this.iterator.next());
+                    count++;
+                    if (factory.shutdown) {
+                        // The main thread will not tick again, finish on this thread.
+                        if (factory.isPastShutdownDeadline() && this.iterator.hasNext()) {
+                            this.future.completeExceptionally(new AbortChainException());
+                            return;
+                        }
+                        continue;
+                    }
+                    final boolean sliceDone = this.budgetNanos > 0
+                            ? System.nanoTime() - start >= this.budgetNanos
+                            : count >= this.perTick;
+                    if (sliceDone && this.iterator.hasNext()) {
+                        factory.getTicker().schedule(1, this);
+                        return;
                     }
-                }).collect(Collectors.toList());
-                if (error[0]) {
-                    onDone.completeExceptionally(new Exception("Future Dependant had an exception"));
+                }
+                this.future.complete(this.collection);
+            } catch (Throwable e) {
+                this.future.completeExceptionally(e);
+            } finally {
+                if (prevChain != null) {
+                    currentChain.set(prevChain);
                 } else {
-                    onDone.complete(results);
+                    currentChain.remove();
                 }
             }
-        });
-        return onDone;
+        }
     }
+    // </editor-fold>
+    /* ======================================================================================== */
+    // <editor-fold desc="// Hedge">
+    /**
+     * Runs copies of a task until one succeeds, starting another each time the hedge delay passes.
+     * @param <R> Result type
+     */
+    private class Hedge<R> {
+        private final Task<R, T> task;
+        private final T input;
+        private final long hedgeAfter;
+        private final int maxCopies;
+        private final CompletableFuture<R> future = new CompletableFuture<>();
+        private final List<CompletableFuture<R>> copies = new ArrayList<>();
+        private int failed = 0;
+        private Throwable lastError;
+        private ScheduledFuture<?> timer;
+
+        private Hedge(Task<R, T> task, T input, long hedgeAfter, int maxCopies) {
+            this.task = task;
+            this.input = input;
+            this.hedgeAfter = hedgeAfter;
+            this.maxCopies = maxCopies;
+        }
+
+        private CompletableFuture<R> start() {
+            startCopy();
+            return this.future;
+        }
+
+        private void startCopy() {
+            final CompletableFuture<R> copy;
+            synchronized (this) {
+                if (this.future.isDone() || this.copies.size() >= this.maxCopies) {
+                    return;
+                }
+                copy = runTaskAsFuture(this.task, this.input);
+                this.copies.add(copy);
+                if (this.timer != null) {
+                    // A failed copy started this one early, restart the hedge delay from now
+                    this.timer.cancel(false);
+                }
+                if (this.copies.size() < this.maxCopies && !factory.shutdown) {
+                    // The timer thread only hands off, the copy itself runs on the async queue
+                    this.timer = factory.getTimer().schedule(() -> impl.postAsync(this::startCopy), this.hedgeAfter, TimeUnit.NANOSECONDS);
+                }
+            }
+            copy.whenComplete((r, e) -> {
+                if (e == null) {
+                    if (this.future.complete(r)) {
+                        cancelCopies();
+                    }
+                    return;
+                }
+                final boolean startNext;
+                synchronized (this) {
+                    this.failed++;
+                    this.lastError = e;
+                    startNext = this.copies.size() < this.maxCopies;
+                    if (!startNext && this.failed == this.copies.size()) {
+                        this.future.completeExceptionally(this.lastError);
+                    }
+                }
+                if (startNext) {
+                    startCopy();
+                }
+            });
+        }
 
+        private void cancelCopies() {
+            final List<CompletableFuture<R>> copies;
+            synchronized (this) {
+                if (this.timer != null) {
+                    this.timer.cancel(false);
+                }
+                copies = new ArrayList<>(this.copies);
+            }
+            for (CompletableFuture<R> copy : copies) {
+                copy.cancel(false);
+            }
+        }
+    }
     // </editor-fold>
     /* ======================================================================================== */
     // <editor-fold desc="// TaskHolder">
@@ -1267,16 +3147,24 @@ public class TaskChain <T> {
         private final TaskChain<?> chain;
         private final Task<R, A> task;
         final Boolean async;
+        final Object regionKey;
+        boolean lowPriority = false;
+        boolean quietAbort = false;
 
         private boolean executed = false;
         private boolean aborted = false;
         private final int actionIndex;
 
         private TaskHolder(TaskChain<?> chain, Boolean async, Task<R, A> task) {
+            this(chain, async, null, task);
+        }
+
+        private TaskHolder(TaskChain<?> chain, Boolean async, Object regionKey, Task<R, A> task) {
             this.actionIndex = TaskChain.this.actionIndex++;
             this.task = task;
             this.chain = chain;
             this.async = async;
+            this.regionKey = regionKey;
         }
 
         /**
@@ -1288,16 +3176,24 @@ public class TaskChain <T> {
             TaskChain.this.currentActionIndex = this.actionIndex;
             final R res;
             final TaskChain<?> prevChain = currentChain.get();
+            final int generation = TaskChain.this.generation;
             try {
                 currentChain.set(this.chain);
                 if (this.task instanceof FutureTask) {
                     //noinspection unchecked
-                    final CompletableFuture<R> future = ((FutureTask<R, A>) this.task).runFuture((A) arg);
+                    final CompletableFuture<R> future = ((FutureTask<R, A>) this.task).runFuture((A) boxPrevious(arg));
                     if (future == null) {
                         throw new NullPointerException("Must return a Future");
                     }
                     future.whenComplete((r, throwable) -> {
-                        if (throwable != null) {
+                        if (TaskChain.this.generation != generation) {
+                            // Finished after its run of a recurring chain was over
+                            return;
+                        }
+                        if (throwable != null && this.quietAbort
+                                && TaskChainFutures.unwrap(throwable) instanceof AbortChainException) {
+                            this.abort();
+                        } else if (throwable != null) {
                             this.chain.handleError(throwable, this.task);
                             this.abort();
                         } else {
@@ -1306,10 +3202,13 @@ public class TaskChain <T> {
                     });
                 } else if (this.task instanceof AsyncExecutingTask) {
                     //noinspection unchecked
-                    ((AsyncExecutingTask<R, A>) this.task).runAsync((A) arg, this::next);
+                    ((AsyncExecutingTask<R, A>) this.task).runAsync((A) boxPrevious(arg), (r) -> {
+                        if (TaskChain.this.generation == generation) {
+                            this.next(r);
+                        }
+                    });
                 } else {
-                    //noinspection unchecked
-                    next(this.task.run((A) arg));
+                    next(call(arg));
                 }
             } catch (Throwable e) {
                 //noinspection ConstantConditions
@@ -1329,7 +3228,55 @@ public class TaskChain <T> {
         }
 
         /**
-         * Abort the chain, and clear tasks for GC.
+         * Runs a task that returns its result immediately
+         */
+        private Object call(Object arg) {
+            final Thread prevEmitThread = TaskChain.this.emitThread;
+            TaskChain.this.emitThread = Thread.currentThread();
+            try {
+                return call0(arg);
+            } finally {
+                TaskChain.this.emitThread = prevEmitThread;
+            }
+        }
+
+        private Object call0(Object arg) {
+            final Task<R, A> task = this.task;
+            if (task instanceof IntTask) {
+                final int input = task instanceof IntFirstTask ? 0 : intInput(arg, task);
+                return storePrimitive(((IntTask) task).runInt(input), INT);
+            } else if (task instanceof LongTask) {
+                final long input = task instanceof LongFirstTask ? 0 : longInput(arg, task);
+                return storePrimitive(((LongTask) task).runLong(input), LONG);
+            } else if (task instanceof DoubleTask) {
+                final double input = task instanceof DoubleFirstTask ? 0 : doubleInput(arg, task);
+                return storePrimitive(Double.doubleToRawLongBits(((DoubleTask) task).runDouble(input)), DOUBLE);
+            } else if (task instanceof IntLastTask) {
+                ((IntLastTask) task).runLast(intInput(arg, task));
+                return null;
+            } else if (task instanceof LongLastTask) {
+                ((LongLastTask) task).runLast(longInput(arg, task));
+                return null;
+            } else if (task instanceof DoubleLastTask) {
+                ((DoubleLastTask) task).runLast(doubleInput(arg, task));
+                return null;
+            } else if (arg == EMITTED) {
+                final int arity = multiTaskArity(task);
+                if (arity != 0) {
+                    return runEmitted(task, arity);
+                }
+            }
+            //noinspection unchecked
+            return task.run((A) boxPrevious(arg));
+        }
+
+        private synchronized void reset() {
+            this.executed = false;
+            this.aborted = false;
+        }
+
+        /**
+         * Abort the chain, and skip the remaining tasks.
          */
         private synchronized void abort() {
             this.aborted = true;
@@ -1353,6 +3300,12 @@ public class TaskChain <T> {
             }
 
             this.chain.async = !TaskChain.this.impl.isMainThread(); // We don't know where the task called this from.
+            // A region thread is neither the main thread nor safe to run blocking async tasks on
+            this.chain.regionThread = this.regionKey != null && this.chain.async && TaskChain.this.impl.isOwnedByCurrentThread(this.regionKey);
+            if (this.chain.journal != null) {
+                resp = this.chain.boxPrevious(resp);
+                this.chain.journal.checkpoint(this.chain.journalId, this.actionIndex, resp);
+            }
             this.chain.previous = resp;
             this.chain.nextTask();
         }
@@ -0,0 +1,232 @@
+/*
+ * Copyright (c) 2016-2017 Daniel Ennis (Aikar) - MIT License
+ *
+ *  Permission is hereby granted, free of charge, to any person obtaining
+ *  a copy of this software and associated documentation files (the
+ *  "Software"), to deal in the Software without restriction, including
+ *  without limitation the rights to use, copy, modify, merge, publish,
+ *  distribute, sublicense, and/or sell copies of the Software, and to
+ *  permit persons to whom the Software is furnished to do so, subject to
+ *  the following conditions:
+ *
+ *  The above copyright notice and this permission notice shall be
+ *  included in all copies or substantial portions of the Software.
+ *
+ *  THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND,
+ *  EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF
+ *  MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND
+ *  NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE
+ *  LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION
+ *  OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION
+ *  WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package co.aikar.taskchain;
+
+import java.util.Arrays;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * An async queue that sizes its pool from measured latency.
+ *
+ * Every task records how long it waited in the queue when it starts, and how long it ran when it finishes.
+ * At most twice a second, checked whenever a task is posted or starts, the pool grows by half when the target
+ * percentile of waits since the last check is over the target wait, and shrinks by one thread when it is well under
+ * it and nothing is queued. The task at the head of the queue counts with how long it has waited so far, so a pool
+ * saturated by long tasks still grows. The size always stays within the bounds.
+ * Threads that have been idle for a minute exit, so an idle pool holds no threads.
+ */
+@SuppressWarnings("WeakerAccess")
+public class TaskChainAdaptiveAsyncQueue implements AsyncQueue {
+    private static final AtomicInteger threadId = new AtomicInteger();
+    private static final int SAMPLES = 256;
+    private static final long RESIZE_INTERVAL = TimeUnit.MILLISECONDS.toNanos(500);
+
+    private final ThreadPoolExecutor executor;
+    private final int minThreads;
+    private final int maxThreads;
+    private final long targetWait;
+    private final double percentile;
+    private final AtomicLongArray waits = new AtomicLongArray(SAMPLES);
+    private final AtomicLongArray runTimes = new AtomicLongArray(SAMPLES);
+    private final AtomicInteger sampleIndex = new AtomicInteger();
+    private final AtomicInteger runTimeIndex = new AtomicInteger();
+    private final AtomicInteger pending = new AtomicInteger();
+    private final AtomicLong lastResize = new AtomicLong(System.nanoTime());
+    private volatile long waitPercentile;
+    private volatile int resizeIndex;
+
+    /**
+     * Keeps the 95th percentile of queue wait under the target.
+     * @param minThreads Smallest the pool will shrink to
+     * @param maxThreads Largest the pool will grow to
+     * @param targetWait How long tasks should wait before they start
+     * @param unit The units of targetWait
+     */
+    public TaskChainAdaptiveAsyncQueue(int minThreads, int maxThreads, long targetWait, TimeUnit unit) {
+        this(minThreads, maxThreads, targetWait, unit, 0.95);
+    }
+
+    /**
+     * @param minThreads Smallest the pool will shrink to
+     * @param maxThreads Largest the pool will grow to
+     * @param targetWait How long tasks should wait before they start
+     * @param unit The units of targetWait
+     * @param percentile Which percentile of waits to keep under targetWait, between 0 and 1
+     */
+    public TaskChainAdaptiveAsyncQueue(int minThreads, int maxThreads, long targetWait, TimeUnit unit, double percentile) {
+        if (minThreads < 1 || maxThreads < minThreads) {
+            throw new IllegalArgumentException("Need 1 <= minThreads <= maxThreads");
+        }
+        if (percentile <= 0 || percentile > 1) {
+            throw new IllegalArgumentException("percentile must be between 0 and 1");
+        }
+        this.minThreads = minThreads;
+        this.maxThreads = maxThreads;
+        this.targetWait = unit.toNanos(targetWait);
+        this.percentile = percentile;
+        this.executor = new ThreadPoolExecutor(minThreads, minThreads, 60, TimeUnit.SECONDS, new LinkedBlockingQueue<>(), r -> {
+            final Thread thread = new Thread(r);
+            thread.setName("TaskChainAdaptiveAsyncQueue Thread " + threadId.getAndIncrement());
+            return thread;
+        });
+        this.executor.allowCoreThreadTimeOut(true);
+    }
+
+    public void postAsync(Runnable runnable) {
+        pending.incrementAndGet();
+        try {
+            executor.execute(new Timed(runnable));
+        } catch (RejectedExecutionException e) {
+            pending.decrementAndGet();
+            throw e;
+        }
+        checkResize();
+    }
+
+    /**
+     * Call during game shutdown state
+     * @param timeout
+     * @param unit
+     */
+    public void shutdown(int timeout, TimeUnit unit) {
+        try {
+            executor.setRejectedExecutionHandler((r, executor1) -> r.run());
+            executor.shutdown();
+            executor.awaitTermination(timeout, unit);
+        } catch (InterruptedException e) {
+            e.printStackTrace();
+        }
+    }
+
+    @Override
+    public boolean isIdle() {
+        return pending.get() == 0;
+    }
+
+    /**
+     * @return Current number of threads the pool may use
+     */
+    public int getPoolSize() {
+        return executor.getMaximumPoolSize();
+    }
+
+    /**
+     * @return The target percentile of recent queue waits, in nanoseconds, as of the last resize check
+     */
+    public long getWaitPercentile() {
+        return waitPercentile;
+    }
+
+    /**
+     * @return Average run time of recent tasks, in nanoseconds
+     */
+    public long getAverageRunTime() {
+        final int count = Math.min(runTimeIndex.get(), SAMPLES);
+        if (count == 0) {
+            return 0;
+        }
+        long total = 0;
+        for (int i = 0; i < count; i++) {
+            total += runTimes.get(i);
+        }
+        return total / count;
+    }
+
+    private void recordWait(long wait) {
+        waits.set(sampleIndex.getAndIncrement() & (SAMPLES - 1), wait);
+        checkResize();
+    }
+
+    private void recordRunTime(long runTime) {
+        runTimes.set(runTimeIndex.getAndIncrement() & (SAMPLES - 1), runTime);
+    }
+
+    private void checkResize() {
+        final long now = System.nanoTime();
+        final long last = lastResize.get();
+        if (now - last >= RESIZE_INTERVAL && lastResize.compareAndSet(last, now)) {
+            resize();
+        }
+    }
+
+    private void resize() {
+        // Only look at tasks that started since the last check, so old load does not linger
+        final int end = sampleIndex.get();
+        final int started = Math.min(end - resizeIndex, SAMPLES);
+        resizeIndex = end;
+        final Runnable head = executor.getQueue().peek();
+        final int count = head instanceof Timed ? started + 1 : started;
+        if (count <= 0) {
+            return;
+        }
+        final long[] sorted = new long[count];
+        for (int i = 0; i < started; i++) {
+            sorted[i] = waits.get((end - 1 - i) & (SAMPLES - 1));
+        }
+        if (head instanceof Timed) {
+            // Still waiting, which is all there is to go on while every thread is busy with long tasks
+            sorted[started] = System.nanoTime() - ((Timed) head).queued;
+        }
+        Arrays.sort(sorted);
+        final long wait = sorted[Math.min(count - 1, (int) (count * percentile))];
+        this.waitPercentile = wait;
+
+        final int size = executor.getMaximumPoolSize();
+        if (wait > targetWait && size < maxThreads) {
+            final int newSize = Math.min(maxThreads, size + (size + 1) / 2);
+            executor.setMaximumPoolSize(newSize);
+            executor.setCorePoolSize(newSize);
+        } else if (wait < targetWait / 4 && size > minThreads && executor.getQueue().isEmpty()) {
+            executor.setCorePoolSize(size - 1);
+            executor.setMaximumPoolSize(size - 1);
+        }
+    }
+
+    private class Timed implements Runnable {
+        private final Runnable task;
+        private final long queued = System.nanoTime();
+
+        private Timed(Runnable task) {
+            this.task = task;
+        }
+
+        @Override
+        public void run() {
+            final long start = System.nanoTime();
+            recordWait(start - this.queued);
+            try {
+                this.task.run();
+            } finally {
+                recordRunTime(System.nanoTime() - start);
+                pending.decrementAndGet();
+            }
+        }
+    }
+}
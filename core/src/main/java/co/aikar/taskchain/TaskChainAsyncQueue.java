@@ -24,6 +24,7 @@
 package co.aikar.taskchain;
 
 import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
 import java.util.concurrent.ThreadPoolExecutor;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicInteger;
@@ -32,6 +33,10 @@ import java.util.concurrent.atomic.AtomicInteger;
 public class TaskChainAsyncQueue implements AsyncQueue {
     private static final AtomicInteger threadId = new AtomicInteger();
     private final ThreadPoolExecutor executor;
+    /**
+     * Tasks posted and not yet finished. The executor's active count misses tasks handed to a worker that has not started yet.
+     */
+    private final AtomicInteger pending = new AtomicInteger();
 
     public TaskChainAsyncQueue() {
         this.executor = createCachedThreadPool();
@@ -50,7 +55,19 @@ public class TaskChainAsyncQueue implements AsyncQueue {
     }
 
     public void postAsync(Runnable runnable) {
-        executor.submit(runnable);
+        pending.incrementAndGet();
+        try {
+            executor.submit(() -> {
+                try {
+                    runnable.run();
+                } finally {
+                    pending.decrementAndGet();
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            pending.decrementAndGet();
+            throw e;
+        }
     }
 
     /**
@@ -67,4 +84,9 @@ public class TaskChainAsyncQueue implements AsyncQueue {
             e.printStackTrace();
         }
     }
+
+    @Override
+    public boolean isIdle() {
+        return pending.get() == 0;
+    }
 }
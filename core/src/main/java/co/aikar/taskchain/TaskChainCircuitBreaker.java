@@ -0,0 +1,193 @@
+/*
+ * Copyright (c) 2016-2017 Daniel Ennis (Aikar) - MIT License
+ *
+ *  Permission is hereby granted, free of charge, to any person obtaining
+ *  a copy of this software and associated documentation files (the
+ *  "Software"), to deal in the Software without restriction, including
+ *  without limitation the rights to use, copy, modify, merge, publish,
+ *  distribute, sublicense, and/or sell copies of the Software, and to
+ *  permit persons to whom the Software is furnished to do so, subject to
+ *  the following conditions:
+ *
+ *  The above copyright notice and this permission notice shall be
+ *  included in all copies or substantial portions of the Software.
+ *
+ *  THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND,
+ *  EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF
+ *  MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND
+ *  NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE
+ *  LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION
+ *  OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION
+ *  WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package co.aikar.taskchain;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Tracks the outcome of guarded tasks for a dependency, such as a database, registered with
+ * {@link TaskChainFactory#registerCircuitBreaker(String, TaskChainCircuitBreaker)}
+ *
+ * The last windowSize calls are kept. Once at least half the window has been recorded, the breaker opens
+ * if the rate of failed calls, or of slow calls, reaches its threshold. While open, guarded tasks are skipped
+ * without running. After the open duration, a single trial call is let through: if it succeeds the breaker
+ * closes with an empty window, otherwise it opens again.
+ */
+@SuppressWarnings("WeakerAccess")
+public class TaskChainCircuitBreaker {
+    public enum State {
+        CLOSED, OPEN, HALF_OPEN
+    }
+
+    private static final byte FAILED = 1;
+    private static final byte SLOW = 2;
+
+    private final byte[] window;
+    private final double failureRateThreshold;
+    private final long openDuration;
+    private long slowCallThreshold = Long.MAX_VALUE;
+    private double slowCallRateThreshold = 1.0;
+
+    private int next = 0;
+    private int recorded = 0;
+    private int failures = 0;
+    private int slowCalls = 0;
+    private State state = State.CLOSED;
+    private long openedAt;
+    private boolean trialRunning;
+
+    /**
+     * @param windowSize Number of recent calls to calculate rates from
+     * @param failureRateThreshold Rate of failed calls, above 0 and at most 1, that opens the breaker
+     * @param openDuration How long the breaker stays open before letting a trial call through
+     * @param unit The units of openDuration
+     */
+    public TaskChainCircuitBreaker(int windowSize, double failureRateThreshold, long openDuration, TimeUnit unit) {
+        if (windowSize < 1) {
+            throw new IllegalArgumentException("windowSize must be at least 1");
+        }
+        if (!(failureRateThreshold > 0 && failureRateThreshold <= 1)) {
+            throw new IllegalArgumentException("failureRateThreshold must be above 0 and at most 1");
+        }
+        if (openDuration < 0) {
+            throw new IllegalArgumentException("openDuration must not be negative");
+        }
+        this.window = new byte[windowSize];
+        this.failureRateThreshold = failureRateThreshold;
+        this.openDuration = unit.toNanos(openDuration);
+    }
+
+    /**
+     * Also opens the breaker when too many calls are slow, even if they succeed
+     * @param slowCall How long a call may take before it counts as slow
+     * @param unit The units of slowCall
+     * @param slowCallRateThreshold Rate of slow calls, above 0 and at most 1, that opens the breaker
+     * @return This breaker
+     */
+    public synchronized TaskChainCircuitBreaker setSlowCallThreshold(long slowCall, TimeUnit unit, double slowCallRateThreshold) {
+        if (slowCall < 0) {
+            throw new IllegalArgumentException("slowCall must not be negative");
+        }
+        if (!(slowCallRateThreshold > 0 && slowCallRateThreshold <= 1)) {
+            throw new IllegalArgumentException("slowCallRateThreshold must be above 0 and at most 1");
+        }
+        this.slowCallThreshold = unit.toNanos(slowCall);
+        this.slowCallRateThreshold = slowCallRateThreshold;
+        return this;
+    }
+
+    public synchronized State getState() {
+        if (this.state == State.OPEN && System.nanoTime() - this.openedAt >= this.openDuration) {
+            return State.HALF_OPEN;
+        }
+        return this.state;
+    }
+
+    /**
+     * @return If a call may run now. Must be followed by {@link #record(boolean, long)} if it does
+     */
+    synchronized boolean tryAcquire() {
+        switch (this.state) {
+            case CLOSED:
+                return true;
+            case OPEN:
+                if (System.nanoTime() - this.openedAt < this.openDuration) {
+                    return false;
+                }
+                this.state = State.HALF_OPEN;
+                this.trialRunning = false;
+                return acquireTrial();
+            default:
+                return acquireTrial();
+        }
+    }
+
+    private boolean acquireTrial() {
+        if (this.trialRunning) {
+            return false;
+        }
+        this.trialRunning = true;
+        return true;
+    }
+
+    /**
+     * Records the outcome of a call that was allowed by {@link #tryAcquire()}
+     * @param failed If the call failed
+     * @param duration How long the call took, in nanoseconds
+     */
+    synchronized void record(boolean failed, long duration) {
+        final boolean slow = duration >= this.slowCallThreshold;
+        if (this.state == State.HALF_OPEN) {
+            this.trialRunning = false;
+            if (failed || slow) {
+                open();
+            } else {
+                this.state = State.CLOSED;
+                reset();
+            }
+            return;
+        }
+        if (this.state == State.OPEN) {
+            return;
+        }
+        final byte outcome = (byte) ((failed ? FAILED : 0) | (slow ? SLOW : 0));
+        if (this.recorded == this.window.length) {
+            final byte old = this.window[this.next];
+            this.failures -= old & FAILED;
+            this.slowCalls -= (old & SLOW) >> 1;
+        } else {
+            this.recorded++;
+        }
+        this.window[this.next] = outcome;
+        this.next = (this.next + 1) % this.window.length;
+        this.failures += outcome & FAILED;
+        this.slowCalls += (outcome & SLOW) >> 1;
+
+        if (this.recorded >= Math.max(1, this.window.length / 2)
+            && (this.failures >= this.failureRateThreshold * this.recorded
+                || this.slowCalls >= this.slowCallRateThreshold * this.recorded)) {
+            open();
+        }
+    }
+
+    /**
+     * Lets another trial call through when a call was allowed but neither succeeded nor failed, such as when it aborted the chain
+     */
+    synchronized void release() {
+        this.trialRunning = false;
+    }
+
+    private void open() {
+        this.state = State.OPEN;
+        this.openedAt = System.nanoTime();
+        reset();
+    }
+
+    private void reset() {
+        this.next = 0;
+        this.recorded = 0;
+        this.failures = 0;
+        this.slowCalls = 0;
+    }
+}
@@ -61,4 +61,20 @@ public final class TaskChainDataWrappers {
             this.var6 = var6;
         }
     }
+
+    /**
+     * The outcome of a single future, as passed by {@link TaskChain#futuresSettled(java.util.List)}
+     * @param <R> Type of the future's result
+     */
+    public static class Settled <R> {
+        public final R value;
+        public final Throwable error;
+        public Settled(R value, Throwable error) {
+            this.value = value;
+            this.error = error;
+        }
+        public boolean isSuccess() {
+            return error == null;
+        }
+    }
 }
@@ -23,19 +23,50 @@
 
 package co.aikar.taskchain;
 
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collections;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
 import java.util.Queue;
+import java.util.Set;
+import java.util.WeakHashMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.LockSupport;
 import java.util.function.BiConsumer;
+import java.util.function.Consumer;
 
 @SuppressWarnings({"WeakerAccess", "unused"})
 public class TaskChainFactory {
     private final GameInterface impl;
     private final AsyncQueue asyncQueue;
     private final Map<String, Queue<SharedTaskChain>> sharedChains = new HashMap<>();
+    private final Map<String, TaskChainLanes> lanes = new HashMap<>();
+    private final List<WriteBehindBuffer<?, ?>> writeBehindBuffers = new CopyOnWriteArrayList<>();
+    private final List<TaskChainJournal> journals = new CopyOnWriteArrayList<>();
+    private final Map<String, TaskChainCircuitBreaker> circuitBreakers = new ConcurrentHashMap<>();
     volatile private BiConsumer<Exception, TaskChainTasks.Task<?, ?>> defaultErrorHandler;
     volatile boolean shutdown = false;
+    /**
+     * Chains are held weakly, so a chain waiting on a future nothing else references can still be collected
+     */
+    private final Set<TaskChain<?>> executing = Collections.newSetFromMap(Collections.synchronizedMap(new WeakHashMap<>()));
+    private final Queue<Runnable> shutdownQueue = new ArrayDeque<>();
+    private volatile Thread shutdownThread;
+    private volatile long shutdownDeadline;
+    private final AtomicInteger shutdownFinished = new AtomicInteger();
+    private final AtomicInteger shutdownAborted = new AtomicInteger();
+    private TaskChainTicker ticker;
+    private ScheduledExecutorService timer;
+    private TaskChainKeyedTimers keyedTimers;
 
     @SuppressWarnings("WeakerAccess")
     public TaskChainFactory(GameInterface impl) {
@@ -59,6 +90,50 @@ public class TaskChainFactory {
         return new TaskChain<>(this);
     }
 
+    /**
+     * Runs the chain built by the template every period game units, starting after the initial delay.
+     *
+     * The chain is built once and executed again for each run, starting on the main thread.
+     * A run that comes due while the last one is still executing is skipped.
+     *
+     * @param template Adds the tasks of the chain. The first task receives null
+     * @param initialDelay Game units before the first run
+     * @param period Game units between the start of each run
+     * @return The schedule, which can be cancelled
+     */
+    public <T, R> TaskChainSchedule schedule(TaskChainTemplate<T, R> template, int initialDelay, int period) {
+        final TaskChainSchedule schedule = new TaskChainSchedule(this, buildScheduled(template), period, false);
+        schedule.start(initialDelay);
+        return schedule;
+    }
+
+    /**
+     * Runs the chain built by the template every period of real time, starting after the initial delay.
+     *
+     * The chain is built once and executed again for each run, starting on an async thread.
+     * A run that comes due while the last one is still executing is skipped.
+     *
+     * @param template Adds the tasks of the chain. The first task receives null
+     * @param initialDelay Time before the first run
+     * @param period Time between the start of each run
+     * @param unit The units of initialDelay and period
+     * @return The schedule, which can be cancelled
+     */
+    public <T, R> TaskChainSchedule schedule(TaskChainTemplate<T, R> template, long initialDelay, long period, TimeUnit unit) {
+        final TaskChainSchedule schedule = new TaskChainSchedule(this, buildScheduled(template), unit.toNanos(period), true);
+        schedule.start(unit.toNanos(initialDelay));
+        return schedule;
+    }
+
+    private <T, R> TaskChain<T> buildScheduled(TaskChainTemplate<T, R> template) {
+        final TaskChain<T> chain = newChain();
+        if (template.apply(chain) != chain) {
+            throw new IllegalArgumentException("Template must add its tasks to the chain it is given, and return it");
+        }
+        chain.markRecurring();
+        return chain;
+    }
+
     /**
      * Allows re-use of a Chain by giving it a name. This lets you keep adding Tasks to
      * an already executing chain. This allows you to assure a sequence of events to only
@@ -77,6 +152,155 @@ public class TaskChainFactory {
         return new SharedTaskChain<>(name, this);
     }
 
+    /**
+     * {@link TaskChainFactory#newSharedChain(String)} with a coalescing mode.
+     *
+     * With {@link Coalesce#LATEST}, if this chain is still waiting in the queue when a newer chain
+     * has been executed behind it, this chain is skipped and completes with done(false).
+     *
+     * @param name Name of the shared chain. Case sensitive
+     * @param coalesce How this chain may be coalesced with newer chains waiting in the same queue
+     */
+    public synchronized <T> TaskChain<T> newSharedChain(String name, Coalesce coalesce) {
+        //noinspection unchecked
+        return new SharedTaskChain<>(name, this, coalesce);
+    }
+
+    /**
+     * Returns a set of keyed serial lanes with the given name, creating it if needed.
+     *
+     * Chains created from the lanes with the same key will execute one at a time, like a shared chain,
+     * while chains with different keys run in parallel. Keys are hashed onto a fixed number of stripes,
+     * so nothing is stored per key. Two keys that land on the same stripe will also wait on each other.
+     *
+     * @param name Name of the lanes. Case sensitive
+     * @param stripes Number of stripes, the maximum number of keys that can execute at once.
+     *                Only used when the lanes are first created.
+     */
+    public synchronized TaskChainLanes lanes(String name, int stripes) {
+        TaskChainLanes lanes = this.lanes.get(name);
+        if (lanes == null) {
+            lanes = new TaskChainLanes(this, name, stripes);
+            this.lanes.put(name, lanes);
+        }
+        return lanes;
+    }
+
+    /**
+     * Creates a buffer that holds the latest value per key and writes them in batches on an async chain.
+     * Chains can add to it with {@link TaskChain#writeBehind(WriteBehindBuffer, java.util.function.Function)}.
+     *
+     * Anything still pending is written during {@link #shutdown(int, TimeUnit)}, after the async queue has finished.
+     *
+     * @param writer Writes a batch of values, called off main thread and never for more than one batch at a time
+     * @param maxPending Number of unwritten keys that starts a batch without waiting for the flush interval
+     * @param flushInterval Game units to wait after a value is added before writing the batch
+     */
+    public <K, V> WriteBehindBuffer<K, V> newWriteBehindBuffer(Consumer<Map<K, V>> writer, int maxPending, int flushInterval) {
+        final WriteBehindBuffer<K, V> buffer = new WriteBehindBuffer<>(this, writer, maxPending, flushInterval);
+        this.writeBehindBuffers.add(buffer);
+        return buffer;
+    }
+
+    /**
+     * Opens a journal for {@link TaskChain#journaled(TaskChainJournal, String)} chains, creating the file if needed.
+     *
+     * Records of finished chains are dropped when opening. The journal is forced to disk during {@link #shutdown(int, TimeUnit)}.
+     *
+     * @param file The journal file
+     */
+    public TaskChainJournal openJournal(Path file) throws IOException {
+        final TaskChainJournal journal = new TaskChainJournal(file);
+        this.journals.add(journal);
+        return journal;
+    }
+
+    /**
+     * Starts measuring tick times if it has not been started. Measuring is also started by the first low priority task.
+     */
+    public void startTickMonitor() {
+        getTicker();
+    }
+
+    /**
+     * @return Average time between the last ticks in milliseconds, or 0 if not measured yet
+     * @see #startTickMonitor()
+     */
+    public double getAverageTickTime() {
+        return getTicker().getAverageTick() / TimeUnit.MILLISECONDS.toNanos(1);
+    }
+
+    /**
+     * @return If the average tick is longer than the lag threshold, so low priority sync tasks are being held back
+     */
+    public boolean isLagging() {
+        return getTicker().isLagging();
+    }
+
+    /**
+     * Sets how long ticks may take on average before low priority sync tasks are held back. Defaults to 55 milliseconds.
+     */
+    public void setLagThreshold(long duration, TimeUnit unit) {
+        getTicker().lagThreshold = unit.toNanos(duration);
+    }
+
+    /**
+     * Sets how long a low priority sync task may be held back while lagging before it runs anyway. Defaults to 5 seconds.
+     */
+    public void setMaxDeferral(long duration, TimeUnit unit) {
+        getTicker().maxDeferral = unit.toNanos(duration);
+    }
+
+    /**
+     * A single daemon thread for real time delays. Callbacks must hand off to the async queue or main thread.
+     */
+    synchronized ScheduledExecutorService getTimer() {
+        if (timer == null) {
+            final ScheduledThreadPoolExecutor executor = new ScheduledThreadPoolExecutor(1, r -> {
+                final Thread thread = new Thread(r);
+                thread.setName("TaskChain Timer");
+                thread.setDaemon(true);
+                return thread;
+            });
+            executor.setRemoveOnCancelPolicy(true);
+            timer = executor;
+        }
+        return timer;
+    }
+
+    synchronized TaskChainKeyedTimers getKeyedTimers() {
+        if (keyedTimers == null) {
+            keyedTimers = new TaskChainKeyedTimers(this);
+        }
+        return keyedTimers;
+    }
+
+    synchronized TaskChainTicker getTicker() {
+        if (ticker == null) {
+            ticker = new TaskChainTicker(this);
+            ticker.start();
+        }
+        return ticker;
+    }
+
+    /**
+     * Registers a circuit breaker that tasks can be guarded by with {@link TaskChain#asyncGuarded(String, TaskChainTasks.Task)}
+     * @param name Name of the breaker, usually the dependency it guards. Case sensitive
+     * @param breaker The breaker, replacing any registered with the same name
+     * @return The breaker
+     */
+    public TaskChainCircuitBreaker registerCircuitBreaker(String name, TaskChainCircuitBreaker breaker) {
+        this.circuitBreakers.put(name, breaker);
+        return breaker;
+    }
+
+    /**
+     * @return The circuit breaker registered with the name, or null
+     */
+    public TaskChainCircuitBreaker getCircuitBreaker(String name) {
+        return this.circuitBreakers.get(name);
+    }
+
     /**
      * Returns the default error handler that will be used by all chains created by this factory,
      * if they do not suspply their own error handler.
@@ -96,12 +320,157 @@ public class TaskChainFactory {
     }
 
     /**
-     * Shuts down the TaskChain system, forcing all tasks to run on current threads and finish.
+     * Shuts down the TaskChain system, finishing executing chains until the duration has passed.
+     *
+     * Async tasks keep running in parallel on the async queue, while sync tasks are run in order, in batches,
+     * on the thread calling shutdown. Once every chain is done, or the duration has passed, the async queue is
+     * given whatever time is left, and the chains that did not finish are logged.
+     *
+     * Write behind buffers are flushed and journals forced to disk after that, even if the duration has passed,
+     * so shutdown can return later than the duration when they have a lot left to write.
+     *
      * @param duration How long in the supplied units to wait before giving up the shutdown.
      * @param units The units for how long to wait before giving up the shutdown
      */
     public void shutdown(int duration, TimeUnit units) {
+        final long deadline = System.nanoTime() + units.toNanos(duration);
+        shutdownDeadline = deadline;
+        final int executingChains = executing.size();
+        synchronized (shutdownQueue) {
+            shutdownThread = Thread.currentThread();
+        }
         shutdown = true;
-        asyncQueue.shutdown(duration, units);
+        try {
+            try {
+                drainShutdownQueue(deadline);
+            } finally {
+                synchronized (shutdownQueue) {
+                    shutdownThread = null;
+                    shutdownQueue.clear();
+                }
+            }
+            reportShutdown(executingChains);
+            final long remaining = Math.max(0, deadline - System.nanoTime());
+            asyncQueue.shutdown((int) Math.min(Integer.MAX_VALUE, TimeUnit.NANOSECONDS.toMillis(remaining)), TimeUnit.MILLISECONDS);
+        } finally {
+            for (WriteBehindBuffer<?, ?> buffer : writeBehindBuffers) {
+                try {
+                    buffer.flushNow();
+                } catch (Exception e) {
+                    TaskChainUtil.logError("TaskChain Exception flushing write behind buffer: " + e.getMessage());
+                    e.printStackTrace();
+                }
+            }
+            for (TaskChainJournal journal : journals) {
+                journal.force();
+            }
+            synchronized (this) {
+                if (timer != null) {
+                    timer.shutdownNow();
+                }
+            }
+        }
+    }
+
+    /**
+     * Runs sync tasks posted during shutdown until every chain is done, the deadline passes,
+     * or nothing is left that could move the remaining chains along
+     */
+    private void drainShutdownQueue(long deadline) {
+        int idleChecks = 0;
+        while (!executing.isEmpty() && System.nanoTime() < deadline) {
+            final TaskChainTicker ticker;
+            final TaskChainKeyedTimers keyedTimers;
+            synchronized (this) {
+                ticker = this.ticker;
+                keyedTimers = this.keyedTimers;
+            }
+            if (ticker != null) {
+                // Delays scheduled just before shutdown started
+                ticker.runDeferred();
+            }
+            if (keyedTimers != null) {
+                // Chains held by debounce or throttle continue now instead of waiting out their window
+                keyedTimers.releaseAll();
+            }
+            int batch;
+            synchronized (shutdownQueue) {
+                batch = shutdownQueue.size();
+            }
+            if (batch == 0) {
+                // Chains still waiting with nothing queued or running are waiting on something outside TaskChain,
+                // such as a future or a shared chain ahead of them. Checked twice in case a task was handing off.
+                if (!asyncQueue.isIdle()) {
+                    idleChecks = 0;
+                } else if (++idleChecks >= 2) {
+                    return;
+                }
+                LockSupport.parkNanos(this, Math.min(TimeUnit.MILLISECONDS.toNanos(1), deadline - System.nanoTime()));
+                continue;
+            }
+            idleChecks = 0;
+            while (batch-- > 0) {
+                final Runnable task;
+                synchronized (shutdownQueue) {
+                    task = shutdownQueue.poll();
+                }
+                try {
+                    task.run();
+                } catch (Exception e) {
+                    TaskChainUtil.logError("TaskChain Exception in shutdown task: " + e.getMessage());
+                    e.printStackTrace();
+                }
+            }
+        }
+    }
+
+    private void reportShutdown(int executingChains) {
+        final List<TaskChain<?>> dropped;
+        synchronized (executing) {
+            dropped = new ArrayList<>(executing);
+        }
+        if (executingChains == 0 && dropped.isEmpty()) {
+            return;
+        }
+        TaskChainUtil.log("TaskChain shutdown: " + shutdownFinished.get() + " chains finished, "
+            + shutdownAborted.get() + " aborted, " + dropped.size() + " did not finish in time");
+        for (TaskChain<?> chain : dropped) {
+            TaskChainUtil.logError("TaskChain shutdown dropped " + chain.describe());
+        }
+    }
+
+    /**
+     * Runs a sync task on the thread calling shutdown, while it is waiting on chains to finish
+     * @return If the task was queued, false if shutdown is not waiting on chains
+     */
+    boolean postToShutdownThread(Runnable task) {
+        final Thread thread;
+        synchronized (shutdownQueue) {
+            thread = shutdownThread;
+            if (thread == null || thread == Thread.currentThread()) {
+                return false;
+            }
+            shutdownQueue.add(task);
+        }
+        LockSupport.unpark(thread);
+        return true;
+    }
+
+    /**
+     * Steps that finish their work inline during shutdown should check this and abort once it is true
+     * @return If shutting down and the shutdown duration has passed
+     */
+    boolean isPastShutdownDeadline() {
+        return shutdown && System.nanoTime() - shutdownDeadline >= 0;
+    }
+
+    void chainStarted(TaskChain<?> chain) {
+        executing.add(chain);
+    }
+
+    void chainDone(TaskChain<?> chain, boolean finished) {
+        if (executing.remove(chain) && shutdown) {
+            (finished ? shutdownFinished : shutdownAborted).incrementAndGet();
+        }
     }
 }
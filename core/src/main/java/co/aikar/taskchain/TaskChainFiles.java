@@ -0,0 +1,244 @@
+/*
+ * Copyright (c) 2016-2017 Daniel Ennis (Aikar) - MIT License
+ *
+ *  Permission is hereby granted, free of charge, to any person obtaining
+ *  a copy of this software and associated documentation files (the
+ *  "Software"), to deal in the Software without restriction, including
+ *  without limitation the rights to use, copy, modify, merge, publish,
+ *  distribute, sublicense, and/or sell copies of the Software, and to
+ *  permit persons to whom the Software is furnished to do so, subject to
+ *  the following conditions:
+ *
+ *  The above copyright notice and this permission notice shall be
+ *  included in all copies or substantial portions of the Software.
+ *
+ *  THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND,
+ *  EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF
+ *  MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND
+ *  NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE
+ *  LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION
+ *  OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION
+ *  WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package co.aikar.taskchain;
+
+import co.aikar.taskchain.TaskChainTasks.Task;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.AsynchronousFileChannel;
+import java.nio.channels.CompletionHandler;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+
+/**
+ * Non blocking file reads and writes for the file family of chain tasks.
+ *
+ * I/O completes on the JVM's asynchronous channel threads, so no async queue thread waits on the disk.
+ * Readers run and futures complete back on the async queue, so the chain never continues on a channel thread.
+ * Read buffers are direct buffers pooled by power of two size classes.
+ */
+final class TaskChainFiles {
+    private static final int MIN_SIZE_CLASS = 12; // 4KB
+    private static final int MAX_SIZE_CLASS = 24; // 16MB
+    private static final int MAX_POOLED_PER_CLASS = 8;
+    private static final int CLASSES = MAX_SIZE_CLASS - MIN_SIZE_CLASS + 1;
+
+    private static final ConcurrentLinkedQueue<ByteBuffer>[] pool;
+    private static final AtomicIntegerArray pooled = new AtomicIntegerArray(CLASSES);
+    static {
+        //noinspection unchecked
+        pool = new ConcurrentLinkedQueue[CLASSES];
+        for (int i = 0; i < CLASSES; i++) {
+            pool[i] = new ConcurrentLinkedQueue<>();
+        }
+    }
+
+    private TaskChainFiles() {
+    }
+
+    /**
+     * Reads the whole file into a buffer and passes it to the reader. The buffer is only valid until the reader returns.
+     * @param mapped Memory map the file instead of reading it into a pooled buffer. Pages are read as the reader touches them.
+     */
+    static <R> CompletableFuture<R> read(GameInterface impl, Path path, Task<R, ByteBuffer> reader, boolean mapped) {
+        final CompletableFuture<R> future = new CompletableFuture<>();
+        try {
+            if (mapped) {
+                final ByteBuffer buffer;
+                try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+                    buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+                }
+                future.complete(reader.run(buffer));
+                return future;
+            }
+            final AsynchronousFileChannel channel = AsynchronousFileChannel.open(path, StandardOpenOption.READ);
+            final long size;
+            try {
+                size = channel.size();
+                if (size > Integer.MAX_VALUE) {
+                    throw new IOException("File too large to read into a buffer, use a mapped read: " + path);
+                }
+            } catch (Throwable e) {
+                close(channel);
+                throw e;
+            }
+            new FileRead<>(impl, channel, acquire((int) size), reader, future).read(0);
+        } catch (Throwable e) {
+            future.completeExceptionally(e);
+        }
+        return future;
+    }
+
+    /**
+     * Writes the remaining bytes of data to the file, replacing its contents. Completes with the number of bytes written.
+     */
+    static CompletableFuture<Integer> write(GameInterface impl, Path path, ByteBuffer data) {
+        final CompletableFuture<Integer> future = new CompletableFuture<>();
+        try {
+            final AsynchronousFileChannel channel = AsynchronousFileChannel.open(path,
+                StandardOpenOption.WRITE, StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING);
+            new FileWrite(impl, channel, data.duplicate(), future).write();
+        } catch (Throwable e) {
+            future.completeExceptionally(e);
+        }
+        return future;
+    }
+
+    static ByteBuffer acquire(int size) {
+        final int sizeClass = Math.max(MIN_SIZE_CLASS, 32 - Integer.numberOfLeadingZeros(Math.max(size, 1) - 1));
+        if (sizeClass > MAX_SIZE_CLASS) {
+            return ByteBuffer.allocateDirect(size);
+        }
+        final int index = sizeClass - MIN_SIZE_CLASS;
+        ByteBuffer buffer = pool[index].poll();
+        if (buffer != null) {
+            pooled.decrementAndGet(index);
+            buffer.clear();
+        } else {
+            buffer = ByteBuffer.allocateDirect(1 << sizeClass);
+        }
+        buffer.limit(size);
+        return buffer;
+    }
+
+    static void release(ByteBuffer buffer) {
+        final int capacity = buffer.capacity();
+        if (!buffer.isDirect() || Integer.bitCount(capacity) != 1) {
+            return;
+        }
+        final int sizeClass = Integer.numberOfTrailingZeros(capacity);
+        if (sizeClass < MIN_SIZE_CLASS || sizeClass > MAX_SIZE_CLASS) {
+            return;
+        }
+        final int index = sizeClass - MIN_SIZE_CLASS;
+        if (pooled.incrementAndGet(index) > MAX_POOLED_PER_CLASS) {
+            pooled.decrementAndGet(index);
+            return;
+        }
+        pool[index].offer(buffer);
+    }
+
+    private static void close(AsynchronousFileChannel channel) {
+        try {
+            channel.close();
+        } catch (IOException ignored) {
+        }
+    }
+
+    private static class FileRead<R> implements CompletionHandler<Integer, Void> {
+        private final GameInterface impl;
+        private final AsynchronousFileChannel channel;
+        private final ByteBuffer buffer;
+        private final Task<R, ByteBuffer> reader;
+        private final CompletableFuture<R> future;
+
+        FileRead(GameInterface impl, AsynchronousFileChannel channel, ByteBuffer buffer, Task<R, ByteBuffer> reader, CompletableFuture<R> future) {
+            this.impl = impl;
+            this.channel = channel;
+            this.buffer = buffer;
+            this.reader = reader;
+            this.future = future;
+        }
+
+        private void read(long position) {
+            if (!this.buffer.hasRemaining()) {
+                finish();
+                return;
+            }
+            this.channel.read(this.buffer, position, null, this);
+        }
+
+        @Override
+        public void completed(Integer read, Void attachment) {
+            if (read < 0) {
+                finish();
+            } else {
+                read(this.buffer.position());
+            }
+        }
+
+        @Override
+        public void failed(Throwable e, Void attachment) {
+            close(this.channel);
+            release(this.buffer);
+            this.impl.postAsync(() -> this.future.completeExceptionally(e));
+        }
+
+        private void finish() {
+            close(this.channel);
+            this.buffer.flip();
+            this.impl.postAsync(() -> {
+                try {
+                    this.future.complete(this.reader.run(this.buffer));
+                } catch (Throwable e) {
+                    this.future.completeExceptionally(e);
+                } finally {
+                    release(this.buffer);
+                }
+            });
+        }
+    }
+
+    private static class FileWrite implements CompletionHandler<Integer, Void> {
+        private final GameInterface impl;
+        private final AsynchronousFileChannel channel;
+        private final ByteBuffer data;
+        private final CompletableFuture<Integer> future;
+        private final int start;
+
+        FileWrite(GameInterface impl, AsynchronousFileChannel channel, ByteBuffer data, CompletableFuture<Integer> future) {
+            this.impl = impl;
+            this.channel = channel;
+            this.data = data;
+            this.future = future;
+            this.start = data.position();
+        }
+
+        private void write() {
+            if (!this.data.hasRemaining()) {
+                close(this.channel);
+                final int written = this.data.position() - this.start;
+                this.impl.postAsync(() -> this.future.complete(written));
+                return;
+            }
+            this.channel.write(this.data, this.data.position() - this.start, null, this);
+        }
+
+        @Override
+        public void completed(Integer written, Void attachment) {
+            write();
+        }
+
+        @Override
+        public void failed(Throwable e, Void attachment) {
+            close(this.channel);
+            this.impl.postAsync(() -> this.future.completeExceptionally(e));
+        }
+    }
+}
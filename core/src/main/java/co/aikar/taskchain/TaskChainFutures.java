@@ -0,0 +1,207 @@
+/*
+ * Copyright (c) 2016-2017 Daniel Ennis (Aikar) - MIT License
+ *
+ *  Permission is hereby granted, free of charge, to any person obtaining
+ *  a copy of this software and associated documentation files (the
+ *  "Software"), to deal in the Software without restriction, including
+ *  without limitation the rights to use, copy, modify, merge, publish,
+ *  distribute, sublicense, and/or sell copies of the Software, and to
+ *  permit persons to whom the Software is furnished to do so, subject to
+ *  the following conditions:
+ *
+ *  The above copyright notice and this permission notice shall be
+ *  included in all copies or substantial portions of the Software.
+ *
+ *  THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND,
+ *  EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF
+ *  MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND
+ *  NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE
+ *  LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION
+ *  OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION
+ *  WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package co.aikar.taskchain;
+
+import co.aikar.taskchain.TaskChainDataWrappers.Settled;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Aggregates multiple futures into one for the futures family of chain tasks.
+ *
+ * Results are written directly into an array, which is passed to the next task as a fixed size list.
+ * Each future writes its own slot before counting down, so the last one to finish sees every result.
+ */
+final class TaskChainFutures {
+    private TaskChainFutures() {
+    }
+
+    /**
+     * Completes with every result, in the order the futures were supplied.
+     * @param failFast Fail as soon as any future fails and cancel the rest, instead of waiting on all of them
+     */
+    @SuppressWarnings("unchecked")
+    static <R> CompletableFuture<List<R>> all(List<CompletableFuture<R>> futures, boolean failFast) {
+        final CompletableFuture<List<R>> onDone = new CompletableFuture<>();
+        final int size = futures.size();
+        final Object[] values = new Object[size];
+        final List<R> results = (List<R>) Arrays.asList(values);
+        if (size == 0) {
+            onDone.complete(results);
+            return onDone;
+        }
+        final AtomicInteger remaining = new AtomicInteger(size);
+        final AtomicReference<Throwable> error = new AtomicReference<>();
+        int i = 0;
+        for (CompletableFuture<R> future : futures) {
+            final int index = i++;
+            future.whenComplete((r, throwable) -> {
+                if (throwable != null) {
+                    error.compareAndSet(null, unwrap(throwable));
+                    if (failFast) {
+                        failAndCancel(onDone, futures, error.get());
+                        return;
+                    }
+                } else {
+                    values[index] = r;
+                }
+                if (remaining.decrementAndGet() == 0) {
+                    if (error.get() != null) {
+                        onDone.completeExceptionally(error.get());
+                    } else {
+                        onDone.complete(results);
+                    }
+                }
+            });
+        }
+        return onDone;
+    }
+
+    /**
+     * Completes with the first successful result, and cancels the rest.
+     * @param failFast Fail as soon as any future fails, instead of only once every future has failed
+     */
+    static <R> CompletableFuture<R> any(List<CompletableFuture<R>> futures, boolean failFast) {
+        final CompletableFuture<R> onDone = new CompletableFuture<>();
+        if (futures.isEmpty()) {
+            onDone.completeExceptionally(new IllegalArgumentException("No futures were supplied"));
+            return onDone;
+        }
+        final AtomicInteger remaining = new AtomicInteger(futures.size());
+        final AtomicReference<Throwable> error = new AtomicReference<>();
+        for (CompletableFuture<R> future : futures) {
+            future.whenComplete((r, throwable) -> {
+                if (throwable == null) {
+                    if (onDone.complete(r)) {
+                        cancel(futures);
+                    }
+                    return;
+                }
+                error.compareAndSet(null, unwrap(throwable));
+                if (failFast) {
+                    failAndCancel(onDone, futures, error.get());
+                } else if (remaining.decrementAndGet() == 0) {
+                    onDone.completeExceptionally(error.get());
+                }
+            });
+        }
+        return onDone;
+    }
+
+    /**
+     * Completes with the first n successful results, in the order they completed, and cancels the rest.
+     * @param failFast Fail as soon as any future fails, instead of only once n successes are no longer possible
+     */
+    static <R> CompletableFuture<List<R>> firstN(int n, List<CompletableFuture<R>> futures, boolean failFast) {
+        final int size = futures.size();
+        if (n < 0 || n > size) {
+            throw new IllegalArgumentException("n must be between 0 and the number of futures (" + size + ")");
+        }
+        final CompletableFuture<List<R>> onDone = new CompletableFuture<>();
+        final List<R> results = new ArrayList<>(n);
+        if (n == 0) {
+            onDone.complete(results);
+            return onDone;
+        }
+        final AtomicInteger failures = new AtomicInteger();
+        final AtomicReference<Throwable> error = new AtomicReference<>();
+        for (CompletableFuture<R> future : futures) {
+            future.whenComplete((r, throwable) -> {
+                if (throwable == null) {
+                    synchronized (results) {
+                        if (results.size() == n) {
+                            return;
+                        }
+                        results.add(r);
+                        if (results.size() < n) {
+                            return;
+                        }
+                    }
+                    if (onDone.complete(results)) {
+                        cancel(futures);
+                    }
+                    return;
+                }
+                error.compareAndSet(null, unwrap(throwable));
+                if (failFast || failures.incrementAndGet() > size - n) {
+                    failAndCancel(onDone, futures, error.get());
+                }
+            });
+        }
+        return onDone;
+    }
+
+    /**
+     * Completes once every future has completed, with the result or error of each one, in the order the futures were supplied.
+     * Never completes exceptionally.
+     */
+    @SuppressWarnings("unchecked")
+    static <R> CompletableFuture<List<Settled<R>>> settled(List<CompletableFuture<R>> futures) {
+        final CompletableFuture<List<Settled<R>>> onDone = new CompletableFuture<>();
+        final int size = futures.size();
+        final Object[] values = new Object[size];
+        final List<Settled<R>> results = (List<Settled<R>>) (List<?>) Arrays.asList(values);
+        if (size == 0) {
+            onDone.complete(results);
+            return onDone;
+        }
+        final AtomicInteger remaining = new AtomicInteger(size);
+        int i = 0;
+        for (CompletableFuture<R> future : futures) {
+            final int index = i++;
+            future.whenComplete((r, throwable) -> {
+                values[index] = new Settled<>(r, throwable != null ? unwrap(throwable) : null);
+                if (remaining.decrementAndGet() == 0) {
+                    onDone.complete(results);
+                }
+            });
+        }
+        return onDone;
+    }
+
+    private static void failAndCancel(CompletableFuture<?> onDone, List<? extends CompletableFuture<?>> futures, Throwable error) {
+        if (onDone.completeExceptionally(error)) {
+            cancel(futures);
+        }
+    }
+
+    private static void cancel(List<? extends CompletableFuture<?>> futures) {
+        for (CompletableFuture<?> future : futures) {
+            future.cancel(true);
+        }
+    }
+
+    static Throwable unwrap(Throwable throwable) {
+        if (throwable instanceof CompletionException && throwable.getCause() != null) {
+            return throwable.getCause();
+        }
+        return throwable;
+    }
+}
@@ -0,0 +1,263 @@
+/*
+ * Copyright (c) 2016-2017 Daniel Ennis (Aikar) - MIT License
+ *
+ *  Permission is hereby granted, free of charge, to any person obtaining
+ *  a copy of this software and associated documentation files (the
+ *  "Software"), to deal in the Software without restriction, including
+ *  without limitation the rights to use, copy, modify, merge, publish,
+ *  distribute, sublicense, and/or sell copies of the Software, and to
+ *  permit persons to whom the Software is furnished to do so, subject to
+ *  the following conditions:
+ *
+ *  The above copyright notice and this permission notice shall be
+ *  included in all copies or substantial portions of the Software.
+ *
+ *  THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND,
+ *  EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF
+ *  MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND
+ *  NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE
+ *  LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION
+ *  OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION
+ *  WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package co.aikar.taskchain;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.io.Serializable;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * An append only, memory mapped file that records the result of each step of journaled chains,
+ * created by {@link TaskChainFactory#openJournal(Path)}
+ *
+ * When a journaled chain with the same id is executed again after a restart, the steps up to the
+ * last recorded result are skipped and the chain continues from there with that result.
+ * Once a chain finishes, its records are no longer used, and they are dropped the next time the journal is opened.
+ *
+ * Only results that are {@link Serializable} (or null) are recorded. A step with any other result
+ * is not a checkpoint, and a resumed chain will continue from an earlier step.
+ *
+ * Records are written to the mapping, so they survive the process crashing.
+ * They are forced to disk when the factory shuts down, or by calling {@link #force()}.
+ */
+@SuppressWarnings("WeakerAccess")
+public class TaskChainJournal {
+    private static final byte CHECKPOINT = 1;
+    private static final byte COMPLETE = 2;
+    private static final int MIN_SIZE = 1 << 20;
+
+    private final Path path;
+    private final FileChannel channel;
+    private final Map<String, Checkpoint> checkpoints = new HashMap<>();
+    private MappedByteBuffer buffer;
+
+    TaskChainJournal(Path path) throws IOException {
+        this.path = path;
+        if (Files.exists(path)) {
+            // Read rather than mapped, a mapped file can not be replaced on Windows until the mapping is collected
+            load(ByteBuffer.wrap(Files.readAllBytes(path)));
+        }
+        // Only the checkpoints still needed are copied to a new file, which then replaces the old one
+        int size = 0;
+        for (Map.Entry<String, Checkpoint> entry : this.checkpoints.entrySet()) {
+            size += 4 + recordLength(entry.getKey().getBytes(StandardCharsets.UTF_8), entry.getValue().data);
+        }
+        final ByteBuffer records = ByteBuffer.allocate(size);
+        for (Map.Entry<String, Checkpoint> entry : this.checkpoints.entrySet()) {
+            writeRecord(records, CHECKPOINT, entry.getKey().getBytes(StandardCharsets.UTF_8), entry.getValue().actionIndex, entry.getValue().data);
+        }
+        records.flip();
+        final Path compacted = path.resolveSibling(path.getFileName() + ".tmp");
+        try (FileChannel out = FileChannel.open(compacted, StandardOpenOption.WRITE,
+                StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING)) {
+            while (records.hasRemaining()) {
+                out.write(records);
+            }
+            out.force(true);
+        }
+        Files.move(compacted, path, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+
+        this.channel = FileChannel.open(path, StandardOpenOption.READ, StandardOpenOption.WRITE);
+        this.buffer = this.channel.map(FileChannel.MapMode.READ_WRITE, 0, Math.max(MIN_SIZE, size * 2));
+        this.buffer.position(size);
+    }
+
+    /**
+     * @return Ids of journaled chains that have not finished, and can be resumed
+     */
+    public synchronized Set<String> getUnfinished() {
+        return new HashSet<>(this.checkpoints.keySet());
+    }
+
+    /**
+     * @return If a chain with this id has recorded results and has not finished
+     */
+    public synchronized boolean hasCheckpoint(String id) {
+        return this.checkpoints.containsKey(id);
+    }
+
+    /**
+     * Drops the records for a chain, so the next chain with this id starts from the beginning
+     */
+    public synchronized void discard(String id) {
+        if (this.checkpoints.remove(id) != null) {
+            append(COMPLETE, id, -1, null);
+        }
+    }
+
+    /**
+     * Forces recorded results to disk
+     */
+    public synchronized void force() {
+        this.buffer.force();
+    }
+
+    public Path getPath() {
+        return this.path;
+    }
+
+    synchronized Checkpoint getCheckpoint(String id) {
+        return this.checkpoints.get(id);
+    }
+
+    /**
+     * Records the result of a step. Results that can not be serialized are skipped.
+     */
+    void checkpoint(String id, int actionIndex, Object result) {
+        if (result != null && !(result instanceof Serializable)) {
+            return;
+        }
+        final byte[] data;
+        try {
+            final ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+            try (ObjectOutputStream out = new ObjectOutputStream(bytes)) {
+                out.writeObject(result);
+            }
+            data = bytes.toByteArray();
+        } catch (IOException e) {
+            TaskChainUtil.logError("TaskChain Exception journaling result of " + id + " at action index " + actionIndex + ": " + e.getMessage());
+            return;
+        }
+        synchronized (this) {
+            this.checkpoints.put(id, new Checkpoint(actionIndex, data));
+            append(CHECKPOINT, id, actionIndex, data);
+        }
+    }
+
+    synchronized void complete(String id) {
+        if (this.checkpoints.remove(id) != null) {
+            append(COMPLETE, id, -1, null);
+        }
+    }
+
+    /**
+     * Record layout: int length, byte type, UTF id, int action index, int data length, data.
+     * The length is written last, so a partly written record reads as the end of the journal.
+     */
+    private void append(byte type, String id, int actionIndex, byte[] data) {
+        final byte[] idBytes = id.getBytes(StandardCharsets.UTF_8);
+        try {
+            ensureCapacity(4 + recordLength(idBytes, data) + 4);
+        } catch (IOException e) {
+            TaskChainUtil.logError("TaskChain Exception growing journal " + this.path + ": " + e.getMessage());
+            return;
+        }
+        writeRecord(this.buffer, type, idBytes, actionIndex, data);
+    }
+
+    private static int recordLength(byte[] idBytes, byte[] data) {
+        return 1 + 2 + idBytes.length + 4 + 4 + (data != null ? data.length : 0);
+    }
+
+    private static void writeRecord(ByteBuffer buffer, byte type, byte[] idBytes, int actionIndex, byte[] data) {
+        final int start = buffer.position();
+        buffer.position(start + 4);
+        buffer.put(type);
+        buffer.putShort((short) idBytes.length);
+        buffer.put(idBytes);
+        buffer.putInt(actionIndex);
+        if (data != null) {
+            buffer.putInt(data.length);
+            buffer.put(data);
+        } else {
+            buffer.putInt(0);
+        }
+        buffer.putInt(start, recordLength(idBytes, data));
+    }
+
+    private void ensureCapacity(int needed) throws IOException {
+        if (this.buffer.remaining() >= needed) {
+            return;
+        }
+        final int position = this.buffer.position();
+        final long size = Math.max((long) this.buffer.capacity() * 2, (long) position + needed);
+        if (size > Integer.MAX_VALUE) {
+            throw new IOException("Journal is full");
+        }
+        this.buffer = this.channel.map(FileChannel.MapMode.READ_WRITE, 0, size);
+        this.buffer.position(position);
+    }
+
+    /**
+     * Reads every record, keeping the last checkpoint of chains that did not finish
+     */
+    private void load(ByteBuffer buffer) throws IOException {
+        while (buffer.remaining() >= 4) {
+            final int length = buffer.getInt();
+            if (length <= 0 || length > buffer.remaining()) {
+                break;
+            }
+            final byte[] record = new byte[length];
+            buffer.get(record);
+            final DataInputStream in = new DataInputStream(new ByteArrayInputStream(record));
+            final byte type = in.readByte();
+            final byte[] idBytes = new byte[in.readUnsignedShort()];
+            in.readFully(idBytes);
+            final String id = new String(idBytes, StandardCharsets.UTF_8);
+            final int actionIndex = in.readInt();
+            final byte[] data = new byte[in.readInt()];
+            in.readFully(data);
+            if (type == COMPLETE) {
+                this.checkpoints.remove(id);
+            } else {
+                this.checkpoints.put(id, new Checkpoint(actionIndex, data));
+            }
+        }
+    }
+
+    static class Checkpoint {
+        final int actionIndex;
+        private final byte[] data;
+
+        Checkpoint(int actionIndex, byte[] data) {
+            this.actionIndex = actionIndex;
+            this.data = data;
+        }
+
+        Object getResult() {
+            try (ObjectInputStream in = new ObjectInputStream(new ByteArrayInputStream(this.data))) {
+                return in.readObject();
+            } catch (IOException | ClassNotFoundException e) {
+                throw new RuntimeException("Could not read journaled result", e);
+            }
+        }
+    }
+}
@@ -0,0 +1,182 @@
+/*
+ * Copyright (c) 2016-2017 Daniel Ennis (Aikar) - MIT License
+ *
+ *  Permission is hereby granted, free of charge, to any person obtaining
+ *  a copy of this software and associated documentation files (the
+ *  "Software"), to deal in the Software without restriction, including
+ *  without limitation the rights to use, copy, modify, merge, publish,
+ *  distribute, sublicense, and/or sell copies of the Software, and to
+ *  permit persons to whom the Software is furnished to do so, subject to
+ *  the following conditions:
+ *
+ *  The above copyright notice and this permission notice shall be
+ *  included in all copies or substantial portions of the Software.
+ *
+ *  THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND,
+ *  EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF
+ *  MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND
+ *  NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE
+ *  LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION
+ *  OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION
+ *  WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package co.aikar.taskchain;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Factory wide table of debounce and throttle timers, keyed by the value of the step's key function
+ */
+final class TaskChainKeyedTimers {
+    private final TaskChainFactory factory;
+    private final Map<Object, Held<?>> debounced = new HashMap<>();
+    private final Map<Object, Throttle> throttled = new HashMap<>();
+
+    TaskChainKeyedTimers(TaskChainFactory factory) {
+        this.factory = factory;
+    }
+
+    /**
+     * Holds the input until no other chain has arrived with the same key for the window.
+     * The chain held before it, if any, is aborted.
+     */
+    <T> CompletableFuture<T> debounce(Object key, T input, long windowNanos) {
+        if (factory.shutdown) {
+            return CompletableFuture.completedFuture(input);
+        }
+        final Held<T> held = new Held<>(input);
+        final Held<?> superseded;
+        synchronized (this) {
+            superseded = debounced.put(key, held);
+            if (superseded != null) {
+                superseded.timer.cancel(false);
+            }
+            held.timer = factory.getTimer().schedule(() -> {
+                final boolean release;
+                synchronized (this) {
+                    release = debounced.remove(key, held);
+                }
+                if (release) {
+                    held.release();
+                }
+            }, windowNanos, TimeUnit.NANOSECONDS);
+        }
+        if (superseded != null) {
+            superseded.abort();
+        }
+        return held.future;
+    }
+
+    /**
+     * Lets the first chain with a key through right away, then holds the last to arrive until the interval has
+     * passed. The chain held before it, if any, is aborted.
+     */
+    <T> CompletableFuture<T> throttle(Object key, T input, long intervalNanos) {
+        if (factory.shutdown) {
+            return CompletableFuture.completedFuture(input);
+        }
+        final Held<T> held;
+        final Held<?> superseded;
+        synchronized (this) {
+            final Throttle throttle = throttled.get(key);
+            if (throttle == null) {
+                final Throttle created = new Throttle();
+                throttled.put(key, created);
+                created.timer = scheduleExpiry(key, created, intervalNanos);
+                return CompletableFuture.completedFuture(input);
+            }
+            held = new Held<>(input);
+            superseded = throttle.pending;
+            throttle.pending = held;
+        }
+        if (superseded != null) {
+            superseded.abort();
+        }
+        return held.future;
+    }
+
+    /**
+     * At the end of an interval, releases the chain held during it and starts another interval,
+     * or forgets the key if none arrived
+     */
+    private ScheduledFuture<?> scheduleExpiry(Object key, Throttle throttle, long intervalNanos) {
+        return factory.getTimer().schedule(() -> {
+            final Held<?> held;
+            synchronized (this) {
+                if (throttled.get(key) != throttle) {
+                    return;
+                }
+                held = throttle.pending;
+                throttle.pending = null;
+                if (held == null) {
+                    throttled.remove(key);
+                    return;
+                }
+                throttle.timer = scheduleExpiry(key, throttle, intervalNanos);
+            }
+            held.release();
+        }, intervalNanos, TimeUnit.NANOSECONDS);
+    }
+
+    /**
+     * Releases every held chain right away, so they can finish during shutdown
+     */
+    void releaseAll() {
+        final Held<?>[] held;
+        synchronized (this) {
+            if (debounced.isEmpty() && throttled.isEmpty()) {
+                return;
+            }
+            int i = 0;
+            held = new Held<?>[debounced.size() + throttled.size()];
+            for (Held<?> debounce : debounced.values()) {
+                debounce.timer.cancel(false);
+                held[i++] = debounce;
+            }
+            for (Throttle throttle : throttled.values()) {
+                throttle.timer.cancel(false);
+                held[i++] = throttle.pending;
+            }
+            debounced.clear();
+            throttled.clear();
+        }
+        for (Held<?> h : held) {
+            if (h != null) {
+                h.release();
+            }
+        }
+    }
+
+    private class Held<T> {
+        private final T input;
+        private final CompletableFuture<T> future = new CompletableFuture<>();
+        private ScheduledFuture<?> timer;
+
+        private Held(T input) {
+            this.input = input;
+        }
+
+        private void release() {
+            if (factory.shutdown) {
+                future.complete(input);
+            } else {
+                // Off the timer thread
+                factory.getImplementation().postAsync(() -> future.complete(input));
+            }
+        }
+
+        private void abort() {
+            future.completeExceptionally(new AbortChainException());
+        }
+    }
+
+    private class Throttle {
+        private Held<?> pending;
+        private ScheduledFuture<?> timer;
+    }
+}
@@ -0,0 +1,76 @@
+/*
+ * Copyright (c) 2016-2017 Daniel Ennis (Aikar) - MIT License
+ *
+ *  Permission is hereby granted, free of charge, to any person obtaining
+ *  a copy of this software and associated documentation files (the
+ *  "Software"), to deal in the Software without restriction, including
+ *  without limitation the rights to use, copy, modify, merge, publish,
+ *  distribute, sublicense, and/or sell copies of the Software, and to
+ *  permit persons to whom the Software is furnished to do so, subject to
+ *  the following conditions:
+ *
+ *  The above copyright notice and this permission notice shall be
+ *  included in all copies or substantial portions of the Software.
+ *
+ *  THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND,
+ *  EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF
+ *  MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND
+ *  NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE
+ *  LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION
+ *  OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION
+ *  WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package co.aikar.taskchain;
+
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+
+/**
+ * A fixed set of serial lanes, created by {@link TaskChainFactory#lanes(String, int)}
+ *
+ * Every chain created with the same key executes after the previous chain for that key has finished,
+ * in the order the chains were created. Chains for keys on different stripes execute in parallel.
+ */
+@SuppressWarnings("WeakerAccess")
+public class TaskChainLanes {
+    private final TaskChainFactory factory;
+    private final String name;
+    private final Queue<SharedTaskChain>[] stripes;
+
+    TaskChainLanes(TaskChainFactory factory, String name, int stripes) {
+        if (stripes < 1) {
+            throw new IllegalArgumentException("stripes must be at least 1");
+        }
+        this.factory = factory;
+        this.name = name;
+        //noinspection unchecked
+        this.stripes = new Queue[stripes];
+        for (int i = 0; i < stripes; i++) {
+            this.stripes[i] = new ConcurrentLinkedQueue<>();
+        }
+    }
+
+    /**
+     * Creates a new chain that will execute serially with every other chain using the same key.
+     *
+     * @param key Key to order the chain by, such as a player UUID. Must have a stable hashCode
+     */
+    public <T> TaskChain<T> newChain(Object key) {
+        return new SharedTaskChain<>(stripeFor(key), this.factory);
+    }
+
+    public String getName() {
+        return this.name;
+    }
+
+    public int getStripes() {
+        return this.stripes.length;
+    }
+
+    private Queue<SharedTaskChain> stripeFor(Object key) {
+        int hash = key.hashCode();
+        hash ^= (hash >>> 16);
+        return this.stripes[Math.floorMod(hash, this.stripes.length)];
+    }
+}
@@ -0,0 +1,404 @@
+/*
+ * Copyright (c) 2016-2017 Daniel Ennis (Aikar) - MIT License
+ *
+ *  Permission is hereby granted, free of charge, to any person obtaining
+ *  a copy of this software and associated documentation files (the
+ *  "Software"), to deal in the Software without restriction, including
+ *  without limitation the rights to use, copy, modify, merge, publish,
+ *  distribute, sublicense, and/or sell copies of the Software, and to
+ *  permit persons to whom the Software is furnished to do so, subject to
+ *  the following conditions:
+ *
+ *  The above copyright notice and this permission notice shall be
+ *  included in all copies or substantial portions of the Software.
+ *
+ *  THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND,
+ *  EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF
+ *  MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND
+ *  NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE
+ *  LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION
+ *  OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION
+ *  WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package co.aikar.taskchain;
+
+import org.reactivestreams.Processor;
+import org.reactivestreams.Publisher;
+import org.reactivestreams.Subscriber;
+import org.reactivestreams.Subscription;
+
+import java.util.ArrayDeque;
+import java.util.NoSuchElementException;
+import java.util.Iterator;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Adapters between chains and Reactive Streams publishers and subscribers.
+ *
+ * Requires the optional org.reactivestreams:reactive-streams dependency. Reactive Streams is used instead of
+ * java.util.concurrent.Flow so TaskChain keeps running on Java 8; on Java 9+, the JDK's FlowAdapters convert between the two.
+ */
+@SuppressWarnings("WeakerAccess")
+public final class TaskChainReactiveStreams {
+    private TaskChainReactiveStreams() {
+    }
+
+    /**
+     * Streams the items of the publisher through the chain, as {@link TaskChain#stream(Iterator)} does for an iterator.
+     *
+     * Items are requested from the publisher batchSize at a time, and more are only requested once the stream has
+     * taken half of them, so no more than batchSize items are ever buffered in front of the stream. While waiting
+     * on the publisher, the stream holds a single async queue thread.
+     *
+     * The publisher is subscribed to when the stream step runs. If it signals an error, the chain's error handler receives it.
+     *
+     * @param chain The chain to add the stream to
+     * @param publisher The publisher to subscribe to
+     * @param batchSize Number of items to request at a time
+     * @param <E> Type of the items
+     */
+    public static <E> TaskChainStream<E> fromPublisher(TaskChain<?> chain, Publisher<E> publisher, int batchSize) {
+        if (batchSize < 1) {
+            throw new IllegalArgumentException("batchSize must be at least 1");
+        }
+        return chain.stream(new PublisherIterator<>(chain.getFactory(), publisher, batchSize));
+    }
+
+    /**
+     * Creates a processor that runs each item through a new chain built from the template, and publishes the results
+     * in the same order the items arrived.
+     *
+     * No more than batchSize chains run at once. Items whose chain aborts are dropped. If a chain fails,
+     * the error is published and the upstream subscription is cancelled.
+     *
+     * @param factory The factory to create the chains with
+     * @param template The tasks to run on each item
+     * @param batchSize Maximum number of items to process at once
+     * @param <I> Type of the items received
+     * @param <O> Type of the results published
+     */
+    public static <I, O> Processor<I, O> processor(TaskChainFactory factory, TaskChainTemplate<I, O> template, int batchSize) {
+        if (batchSize < 1) {
+            throw new IllegalArgumentException("batchSize must be at least 1");
+        }
+        return new ChainProcessor<>(factory, template, batchSize);
+    }
+
+    /**
+     * Exposes a publisher as a blocking iterator, requesting more items as they are taken
+     */
+    private static class PublisherIterator<E> implements Iterator<E>, Subscriber<E> {
+        private static final Object COMPLETE = new Object();
+        private static final long WAKE_INTERVAL = TimeUnit.MILLISECONDS.toNanos(50);
+
+        private final TaskChainFactory factory;
+        private final Publisher<E> publisher;
+        private final int batchSize;
+        private final Queue<Object> items = new ConcurrentLinkedQueue<>();
+        private volatile Subscription subscription;
+        private volatile Thread waiting;
+        private volatile Throwable error;
+        private boolean subscribed = false;
+        private int taken = 0;
+        private Object next;
+
+        private PublisherIterator(TaskChainFactory factory, Publisher<E> publisher, int batchSize) {
+            this.factory = factory;
+            this.publisher = publisher;
+            this.batchSize = batchSize;
+        }
+
+        @Override
+        public boolean hasNext() {
+            if (!this.subscribed) {
+                this.subscribed = true;
+                this.publisher.subscribe(this);
+            }
+            while (this.next == null) {
+                this.next = this.items.poll();
+                if (this.next != null) {
+                    break;
+                }
+                if (this.factory.isPastShutdownDeadline()) {
+                    final Subscription subscription = this.subscription;
+                    if (subscription != null) {
+                        subscription.cancel();
+                    }
+                    TaskChainUtil.sneakyThrows(new AbortChainException());
+                }
+                this.waiting = Thread.currentThread();
+                if (this.items.isEmpty()) {
+                    // Wakes up now and then to give up once shutdown runs out of time
+                    LockSupport.parkNanos(this, WAKE_INTERVAL);
+                }
+                this.waiting = null;
+            }
+            if (this.next == COMPLETE) {
+                if (this.error != null) {
+                    TaskChainUtil.sneakyThrows(this.error);
+                }
+                return false;
+            }
+            return true;
+        }
+
+        @Override
+        public E next() {
+            if (!hasNext()) {
+                throw new NoSuchElementException();
+            }
+            //noinspection unchecked
+            final E item = (E) this.next;
+            this.next = null;
+            if (++this.taken >= (this.batchSize + 1) / 2) {
+                this.subscription.request(this.taken);
+                this.taken = 0;
+            }
+            return item;
+        }
+
+        @Override
+        public void onSubscribe(Subscription subscription) {
+            this.subscription = subscription;
+            subscription.request(this.batchSize);
+        }
+
+        @Override
+        public void onNext(E item) {
+            offer(item);
+        }
+
+        @Override
+        public void onError(Throwable throwable) {
+            this.error = throwable;
+            offer(COMPLETE);
+        }
+
+        @Override
+        public void onComplete() {
+            offer(COMPLETE);
+        }
+
+        private void offer(Object item) {
+            this.items.add(item);
+            final Thread waiting = this.waiting;
+            if (waiting != null) {
+                LockSupport.unpark(waiting);
+            }
+        }
+    }
+
+    /**
+     * Runs a chain per item, publishing results in order as the subscriber requests them
+     */
+    private static class ChainProcessor<I, O> implements Processor<I, O> {
+        private final TaskChainFactory factory;
+        private final TaskChainTemplate<I, O> template;
+        private final int batchSize;
+        private final ArrayDeque<Slot> slots = new ArrayDeque<>();
+        private final AtomicInteger wip = new AtomicInteger();
+        private Subscription upstream;
+        private Subscriber<? super O> downstream;
+        private long demand = 0;
+        private boolean started = false;
+        private boolean upstreamDone = false;
+        private boolean terminated = false;
+        private volatile boolean cancelled = false;
+        private volatile Throwable error;
+
+        private ChainProcessor(TaskChainFactory factory, TaskChainTemplate<I, O> template, int batchSize) {
+            this.factory = factory;
+            this.template = template;
+            this.batchSize = batchSize;
+        }
+
+        @Override
+        public void subscribe(Subscriber<? super O> subscriber) {
+            synchronized (this) {
+                if (this.downstream != null) {
+                    subscriber.onSubscribe(new Subscription() {
+                        @Override
+                        public void request(long n) {
+                        }
+
+                        @Override
+                        public void cancel() {
+                        }
+                    });
+                    subscriber.onError(new IllegalStateException("This processor only supports a single subscriber"));
+                    return;
+                }
+                this.downstream = subscriber;
+            }
+            subscriber.onSubscribe(new Subscription() {
+                @Override
+                public void request(long n) {
+                    if (n <= 0) {
+                        onError(new IllegalArgumentException("Requested " + n + " items, must be positive"));
+                        return;
+                    }
+                    synchronized (ChainProcessor.this) {
+                        demand = demand + n < 0 ? Long.MAX_VALUE : demand + n;
+                    }
+                    drain();
+                }
+
+                @Override
+                public void cancel() {
+                    cancelled = true;
+                    final Subscription upstream;
+                    synchronized (ChainProcessor.this) {
+                        upstream = ChainProcessor.this.upstream;
+                    }
+                    if (upstream != null) {
+                        upstream.cancel();
+                    }
+                }
+            });
+            start();
+        }
+
+        @Override
+        public void onSubscribe(Subscription subscription) {
+            synchronized (this) {
+                if (this.upstream != null) {
+                    subscription.cancel();
+                    return;
+                }
+                this.upstream = subscription;
+            }
+            start();
+        }
+
+        /**
+         * Requests the first batch once both sides are subscribed
+         */
+        private void start() {
+            final Subscription upstream;
+            synchronized (this) {
+                if (this.started || this.upstream == null || this.downstream == null) {
+                    return;
+                }
+                this.started = true;
+                upstream = this.upstream;
+            }
+            if (this.cancelled) {
+                upstream.cancel();
+            } else {
+                upstream.request(this.batchSize);
+            }
+        }
+
+        @Override
+        public void onNext(I item) {
+            final Slot slot = new Slot();
+            synchronized (this) {
+                this.slots.add(slot);
+            }
+            final TaskChain<I> chain = this.factory.newChain();
+            this.template.apply(chain.currentFirst(() -> item))
+                .currentLast((result) -> slot.value = result)
+                .execute((finished) -> {
+                    slot.dropped = !finished;
+                    slot.done = true;
+                    drain();
+                }, (e, task) -> {
+                    if (this.error == null) {
+                        this.error = e;
+                    }
+                });
+        }
+
+        @Override
+        public void onError(Throwable throwable) {
+            if (this.error == null) {
+                this.error = throwable;
+            }
+            synchronized (this) {
+                this.upstreamDone = true;
+            }
+            drain();
+        }
+
+        @Override
+        public void onComplete() {
+            synchronized (this) {
+                this.upstreamDone = true;
+            }
+            drain();
+        }
+
+        /**
+         * Publishes finished results in order. Only one thread publishes at a time.
+         */
+        private void drain() {
+            if (this.wip.getAndIncrement() != 0) {
+                return;
+            }
+            int missed = 1;
+            while (true) {
+                int replace = 0;
+                while (true) {
+                    final Slot slot;
+                    synchronized (this) {
+                        if (this.terminated || this.cancelled || this.error != null) {
+                            break;
+                        }
+                        slot = this.slots.peek();
+                        if (slot == null || !slot.done || (!slot.dropped && this.demand == 0)) {
+                            break;
+                        }
+                        this.slots.poll();
+                        if (!slot.dropped) {
+                            this.demand--;
+                        }
+                    }
+                    replace++;
+                    if (!slot.dropped) {
+                        //noinspection unchecked
+                        this.downstream.onNext((O) slot.value);
+                    }
+                }
+                final Subscription upstream;
+                boolean complete = false;
+                boolean failed = false;
+                synchronized (this) {
+                    upstream = this.upstream;
+                    if (!this.terminated && !this.cancelled) {
+                        if (this.error != null) {
+                            failed = this.terminated = true;
+                        } else if (this.upstreamDone && this.slots.isEmpty()) {
+                            complete = this.terminated = true;
+                        }
+                    }
+                }
+                if (failed) {
+                    if (upstream != null) {
+                        upstream.cancel();
+                    }
+                    this.downstream.onError(this.error);
+                } else if (complete) {
+                    this.downstream.onComplete();
+                } else if (replace > 0 && upstream != null && !this.cancelled) {
+                    // Keep batchSize chains running
+                    upstream.request(replace);
+                }
+                missed = this.wip.addAndGet(-missed);
+                if (missed == 0) {
+                    return;
+                }
+            }
+        }
+
+        private static class Slot {
+            private volatile Object value;
+            private volatile boolean done;
+            private volatile boolean dropped;
+        }
+    }
+}
@@ -0,0 +1,159 @@
+/*
+ * Copyright (c) 2016-2017 Daniel Ennis (Aikar) - MIT License
+ *
+ *  Permission is hereby granted, free of charge, to any person obtaining
+ *  a copy of this software and associated documentation files (the
+ *  "Software"), to deal in the Software without restriction, including
+ *  without limitation the rights to use, copy, modify, merge, publish,
+ *  distribute, sublicense, and/or sell copies of the Software, and to
+ *  permit persons to whom the Software is furnished to do so, subject to
+ *  the following conditions:
+ *
+ *  The above copyright notice and this permission notice shall be
+ *  included in all copies or substantial portions of the Software.
+ *
+ *  THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND,
+ *  EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF
+ *  MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND
+ *  NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE
+ *  LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION
+ *  OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION
+ *  WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package co.aikar.taskchain;
+
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * A chain that runs every period, returned by {@link TaskChainFactory#schedule(TaskChainTemplate, int, int)}
+ * and {@link TaskChainFactory#schedule(TaskChainTemplate, long, long, TimeUnit)}.
+ *
+ * Runs are planned from when the schedule started, not from when the last run finished, so they do not drift.
+ * A run that comes due while the last one is still executing is skipped.
+ */
+@SuppressWarnings("WeakerAccess")
+public final class TaskChainSchedule {
+    private final TaskChainFactory factory;
+    private final TaskChain<?> chain;
+    private final long period;
+    private final boolean realTime;
+    private final AtomicBoolean running = new AtomicBoolean();
+    private final AtomicLong runs = new AtomicLong();
+    private final AtomicLong skipped = new AtomicLong();
+    private volatile boolean cancelled = false;
+    private long next;
+    private ScheduledFuture<?> timer;
+
+    /**
+     * @param period Ticks between runs, or nanoseconds if realTime
+     */
+    TaskChainSchedule(TaskChainFactory factory, TaskChain<?> chain, long period, boolean realTime) {
+        if (period < 1) {
+            throw new IllegalArgumentException("period must be positive");
+        }
+        this.factory = factory;
+        this.chain = chain;
+        this.period = period;
+        this.realTime = realTime;
+    }
+
+    synchronized void start(long initialDelay) {
+        this.next = now() + Math.max(this.realTime ? 0 : 1, initialDelay);
+        arm();
+    }
+
+    /**
+     * Stops any further runs. A run already executing still finishes.
+     */
+    public void cancel() {
+        this.cancelled = true;
+        synchronized (this) {
+            if (this.timer != null) {
+                this.timer.cancel(false);
+            }
+        }
+    }
+
+    public boolean isCancelled() {
+        return this.cancelled;
+    }
+
+    /**
+     * @return If the chain is executing right now
+     */
+    public boolean isRunning() {
+        return this.running.get();
+    }
+
+    /**
+     * @return Number of times the chain has been started
+     */
+    public long getRuns() {
+        return this.runs.get();
+    }
+
+    /**
+     * @return Number of runs skipped because the previous one was still executing, or the timer fell behind
+     */
+    public long getSkipped() {
+        return this.skipped.get();
+    }
+
+    private long now() {
+        return this.realTime ? System.nanoTime() : this.factory.getTicker().getTick();
+    }
+
+    private void arm() {
+        if (this.cancelled || this.factory.shutdown) {
+            return;
+        }
+        if (this.realTime) {
+            this.timer = this.factory.getTimer().schedule(this::fire, this.next - now(), TimeUnit.NANOSECONDS);
+        } else {
+            this.factory.getTicker().schedule((int) Math.min(Integer.MAX_VALUE, this.next - now()), this::fire);
+        }
+    }
+
+    private void fire() {
+        if (this.cancelled || this.factory.shutdown) {
+            return;
+        }
+        synchronized (this) {
+            // From the planned time rather than now, so a late run does not push back the ones after it
+            this.next += this.period;
+            final long now = now();
+            if (this.next <= now) {
+                final long missed = (now - this.next) / this.period + 1;
+                this.next += missed * this.period;
+                this.skipped.addAndGet(missed);
+            }
+            arm();
+        }
+        if (!this.running.compareAndSet(false, true)) {
+            this.skipped.incrementAndGet();
+            return;
+        }
+        this.runs.incrementAndGet();
+        if (this.realTime) {
+            // Off the timer thread
+            this.factory.getImplementation().postAsync(this::run);
+        } else {
+            run();
+        }
+    }
+
+    private void run() {
+        try {
+            this.chain.reset();
+            this.chain.execute((finished) -> this.running.set(false), null);
+        } catch (Exception e) {
+            this.running.set(false);
+            TaskChainUtil.logError("TaskChain Exception starting scheduled chain: " + e.getMessage());
+            e.printStackTrace();
+        }
+    }
+}
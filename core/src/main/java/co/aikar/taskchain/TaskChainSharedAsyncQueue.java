@@ -0,0 +1,190 @@
+/*
+ * Copyright (c) 2016-2017 Daniel Ennis (Aikar) - MIT License
+ *
+ *  Permission is hereby granted, free of charge, to any person obtaining
+ *  a copy of this software and associated documentation files (the
+ *  "Software"), to deal in the Software without restriction, including
+ *  without limitation the rights to use, copy, modify, merge, publish,
+ *  distribute, sublicense, and/or sell copies of the Software, and to
+ *  permit persons to whom the Software is furnished to do so, subject to
+ *  the following conditions:
+ *
+ *  The above copyright notice and this permission notice shall be
+ *  included in all copies or substantial portions of the Software.
+ *
+ *  THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND,
+ *  EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF
+ *  MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND
+ *  NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE
+ *  LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION
+ *  OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION
+ *  WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package co.aikar.taskchain;
+
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * An async queue that runs on a thread pool shared by many factories, instead of a pool per factory.
+ *
+ * Each queue runs at most maxConcurrent of its tasks at once. Shutting down a queue only waits on that queue's tasks.
+ *
+ * Async tasks may block, so every task runs as a {@link ForkJoinPool.ManagedBlocker} and a {@link ForkJoinPool}
+ * adds a spare thread instead of letting one factory's blocked tasks hold up every other factory.
+ * The pool from {@link #newSharedExecutor()} only uses JDK classes and daemon threads, so it can be handed to
+ * other plugins without keeping the class loader of the plugin that created it alive.
+ *
+ * Plugins shade and relocate their own copy of TaskChain, so the platform factories publish the pool through
+ * the platform's service registry for other plugins to find.
+ */
+@SuppressWarnings("WeakerAccess")
+public class TaskChainSharedAsyncQueue implements AsyncQueue {
+    private final ExecutorService executor;
+    private final int maxConcurrent;
+    private final Queue<Runnable> tasks = new ConcurrentLinkedQueue<>();
+    private final AtomicInteger runners = new AtomicInteger();
+    private final AtomicInteger pending = new AtomicInteger();
+    private volatile boolean shutdown = false;
+
+    /**
+     * Uses a pool shared by every queue created by this copy of TaskChain
+     *
+     * @param maxConcurrent Maximum number of this queue's tasks to run at once
+     */
+    public TaskChainSharedAsyncQueue(int maxConcurrent) {
+        this(SharedExecutorHolder.EXECUTOR, maxConcurrent);
+    }
+
+    /**
+     * @param executor The shared pool, such as one made by {@link #newSharedExecutor()}
+     * @param maxConcurrent Maximum number of this queue's tasks to run at once
+     */
+    public TaskChainSharedAsyncQueue(ExecutorService executor, int maxConcurrent) {
+        if (maxConcurrent < 1) {
+            throw new IllegalArgumentException("maxConcurrent must be at least 1");
+        }
+        this.executor = executor;
+        this.maxConcurrent = maxConcurrent;
+    }
+
+    /**
+     * Creates a pool to share between queues, running {@code taskchain.sharedThreads} tasks (system property)
+     * before adding spare threads for blocked tasks, by default twice the number of processors and at least 4.
+     */
+    public static ForkJoinPool newSharedExecutor() {
+        final int threads = Integer.getInteger("taskchain.sharedThreads",
+            Math.max(4, Runtime.getRuntime().availableProcessors() * 2));
+        return new ForkJoinPool(threads, ForkJoinPool.defaultForkJoinWorkerThreadFactory, null, true);
+    }
+
+    public void postAsync(Runnable runnable) {
+        if (shutdown) {
+            runnable.run();
+            return;
+        }
+        pending.incrementAndGet();
+        tasks.add(runnable);
+        startRunner();
+    }
+
+    /**
+     * Call during game shutdown state. Waits on this queue's tasks only, running any posted after this on the caller.
+     * @param timeout
+     * @param unit
+     */
+    public void shutdown(int timeout, TimeUnit unit) {
+        shutdown = true;
+        final long deadline = System.nanoTime() + unit.toNanos(timeout);
+        synchronized (pending) {
+            try {
+                long remaining;
+                while (pending.get() > 0 && (remaining = deadline - System.nanoTime()) > 0) {
+                    TimeUnit.NANOSECONDS.timedWait(pending, remaining);
+                }
+            } catch (InterruptedException e) {
+                e.printStackTrace();
+            }
+        }
+    }
+
+    @Override
+    public boolean isIdle() {
+        return pending.get() == 0;
+    }
+
+    private void startRunner() {
+        int running;
+        do {
+            running = runners.get();
+            if (running >= maxConcurrent) {
+                return;
+            }
+        } while (!runners.compareAndSet(running, running + 1));
+        executor.execute(this::runNext);
+    }
+
+    private void runNext() {
+        Runnable task;
+        while ((task = tasks.poll()) != null) {
+            try {
+                runBlocking(task);
+            } catch (Throwable e) {
+                TaskChainUtil.logError("TaskChain Exception in async task: " + e.getMessage());
+                e.printStackTrace();
+            } finally {
+                if (pending.decrementAndGet() == 0) {
+                    synchronized (pending) {
+                        pending.notifyAll();
+                    }
+                }
+            }
+        }
+        runners.decrementAndGet();
+        if (!tasks.isEmpty()) {
+            startRunner();
+        }
+    }
+
+    /**
+     * Lets a {@link ForkJoinPool} start a spare thread while the task runs, in case it blocks
+     */
+    private static void runBlocking(Runnable task) throws InterruptedException {
+        if (ForkJoinTask.inForkJoinPool()) {
+            ForkJoinPool.managedBlock(new ForkJoinPool.ManagedBlocker() {
+                private boolean done = false;
+
+                @Override
+                public boolean block() {
+                    task.run();
+                    done = true;
+                    return true;
+                }
+
+                @Override
+                public boolean isReleasable() {
+                    return done;
+                }
+            });
+        } else {
+            task.run();
+        }
+    }
+
+    public int getMaxConcurrent() {
+        return maxConcurrent;
+    }
+
+    /**
+     * Created on first use, so platforms that pass in their own pool never start this one
+     */
+    private static class SharedExecutorHolder {
+        private static final ForkJoinPool EXECUTOR = newSharedExecutor();
+    }
+}
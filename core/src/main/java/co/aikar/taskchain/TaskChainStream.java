@@ -0,0 +1,282 @@
+/*
+ * Copyright (c) 2016-2017 Daniel Ennis (Aikar) - MIT License
+ *
+ *  Permission is hereby granted, free of charge, to any person obtaining
+ *  a copy of this software and associated documentation files (the
+ *  "Software"), to deal in the Software without restriction, including
+ *  without limitation the rights to use, copy, modify, merge, publish,
+ *  distribute, sublicense, and/or sell copies of the Software, and to
+ *  permit persons to whom the Software is furnished to do so, subject to
+ *  the following conditions:
+ *
+ *  The above copyright notice and this permission notice shall be
+ *  included in all copies or substantial portions of the Software.
+ *
+ *  THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND,
+ *  EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF
+ *  MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND
+ *  NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE
+ *  LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION
+ *  OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION
+ *  WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package co.aikar.taskchain;
+
+import co.aikar.taskchain.TaskChainTasks.LastTask;
+import co.aikar.taskchain.TaskChainTasks.Task;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Builds a streaming step for a chain. Created by {@link TaskChain#stream(Iterator)}
+ *
+ * Elements are pulled from the source off of the main thread, passed through every async transform stage,
+ * and handed to the sync sink in the same order they came out of the source.
+ * No more than {@link #maxInFlight(int)} elements are ever held between the source and the sink.
+ *
+ * @param <E> Type of the elements that will reach the sink
+ */
+@SuppressWarnings("WeakerAccess")
+public class TaskChainStream <E> {
+    private final TaskChain<?> chain;
+    private final TaskChainFactory factory;
+    private final Iterator<?> source;
+    private final List<Task<?, ?>> stages = new ArrayList<>();
+    private int maxInFlight = 64;
+
+    TaskChainStream(TaskChain<?> chain, TaskChainFactory factory, Iterator<?> source) {
+        this.chain = chain;
+        this.factory = factory;
+        this.source = source;
+    }
+
+    /**
+     * Adds a transform stage that will run off of the main thread for every element.
+     * Returning null from the transform drops the element from the stream.
+     *
+     * @param transform The transform to apply
+     * @param <R> Type of the transformed elements
+     */
+    public <R> TaskChainStream<R> async(Task<R, E> transform) {
+        this.stages.add(transform);
+        //noinspection unchecked
+        return (TaskChainStream<R>) this;
+    }
+
+    /**
+     * Sets how many elements may be pulled from the source without having reached the sink yet.
+     * Defaults to 64.
+     *
+     * @param maxInFlight Maximum number of elements in flight
+     */
+    public TaskChainStream<E> maxInFlight(int maxInFlight) {
+        if (maxInFlight < 1) {
+            throw new IllegalArgumentException("maxInFlight must be at least 1");
+        }
+        this.maxInFlight = maxInFlight;
+        return this;
+    }
+
+    /**
+     * Finishes the stream by consuming its elements on the main thread, no more than perTick elements per game unit,
+     * and adds it to the chain as a single task.
+     *
+     * The number of elements the sink consumed is passed to the next task.
+     *
+     * @param sink The task to consume each element with
+     * @param perTick Maximum number of elements to consume per game unit
+     */
+    public TaskChain<Long> syncSink(LastTask<E> sink, int perTick) {
+        if (perTick < 1) {
+            throw new IllegalArgumentException("perTick must be at least 1");
+        }
+        final Task<?, ?>[] stages = this.stages.toArray(new Task<?, ?>[0]);
+        final int maxInFlight = this.maxInFlight;
+        //noinspection unchecked
+        return ((TaskChain<Object>) this.chain).internalFuture(null, (input) -> new StreamRunner(stages, maxInFlight, sink, perTick).start());
+    }
+
+    private static class Slot {
+        private Object value;
+        private volatile boolean done;
+
+        private Slot(Object value) {
+            this.value = value;
+        }
+    }
+
+    /**
+     * Execution state of a single run of the stream
+     */
+    private class StreamRunner {
+        private final Task<?, ?>[] stages;
+        private final int maxInFlight;
+        private final LastTask<E> sink;
+        private final int perTick;
+        private final GameInterface impl = factory.getImplementation();
+        private final CompletableFuture<Long> result = new CompletableFuture<>();
+        private final ArrayDeque<Slot> window = new ArrayDeque<>();
+        private boolean filling = false;
+        private boolean exhausted = false;
+        private volatile Throwable error;
+        private long consumed = 0;
+
+        private StreamRunner(Task<?, ?>[] stages, int maxInFlight, LastTask<E> sink, int perTick) {
+            this.stages = stages;
+            this.maxInFlight = maxInFlight;
+            this.sink = sink;
+            this.perTick = perTick;
+        }
+
+        private CompletableFuture<Long> start() {
+            postFill();
+            if (factory.shutdown) {
+                drain();
+            } else {
+                factory.getTicker().schedule(1, this::drain);
+            }
+            return this.result;
+        }
+
+        private void postFill() {
+            if (factory.shutdown) {
+                fill();
+            } else {
+                impl.postAsync(this::fill);
+            }
+        }
+
+        /**
+         * Pulls elements from the source until the window is full. Only one thread may fill at a time.
+         */
+        private void fill() {
+            synchronized (this) {
+                if (this.filling || this.exhausted) {
+                    return;
+                }
+                this.filling = true;
+            }
+            try {
+                while (this.error == null) {
+                    synchronized (this) {
+                        if (this.window.size() >= this.maxInFlight) {
+                            break;
+                        }
+                    }
+                    if (!source.hasNext()) {
+                        synchronized (this) {
+                            this.exhausted = true;
+                        }
+                        break;
+                    }
+                    final Slot slot = new Slot(source.next());
+                    synchronized (this) {
+                        this.window.add(slot);
+                    }
+                    if (this.stages.length == 0) {
+                        slot.done = true;
+                    } else if (factory.shutdown) {
+                        transform(slot);
+                    } else {
+                        impl.postAsync(() -> transform(slot));
+                    }
+                }
+            } catch (Throwable e) {
+                this.error = e;
+            } finally {
+                synchronized (this) {
+                    this.filling = false;
+                }
+            }
+        }
+
+        private void transform(Slot slot) {
+            try {
+                Object value = slot.value;
+                for (Task<?, ?> stage : this.stages) {
+                    if (value == null) {
+                        break;
+                    }
+                    //noinspection unchecked
+                    value = ((Task<Object, Object>) stage).run(value);
+                }
+                slot.value = value;
+            } catch (Throwable e) {
+                this.error = e;
+            }
+            slot.done = true;
+        }
+
+        /**
+         * Runs on the main thread once per game unit, feeding completed elements to the sink in order.
+         */
+        private void drain() {
+            while (true) {
+                final boolean progressed = drainReady(factory.shutdown ? Integer.MAX_VALUE : this.perTick);
+                if (checkFinished()) {
+                    return;
+                }
+                if (!factory.shutdown) {
+                    postFill();
+                    factory.getTicker().schedule(1, this::drain);
+                    return;
+                }
+                // The main thread will not tick again during shutdown, so finish the stream on this thread.
+                if (factory.isPastShutdownDeadline()) {
+                    this.result.completeExceptionally(new AbortChainException());
+                    return;
+                }
+                fill();
+                if (!progressed) {
+                    LockSupport.parkNanos(TimeUnit.MILLISECONDS.toNanos(1));
+                }
+            }
+        }
+
+        private boolean drainReady(int limit) {
+            int count = 0;
+            try {
+                while (count < limit && this.error == null) {
+                    final Slot slot;
+                    synchronized (this) {
+                        slot = this.window.peek();
+                        if (slot == null || !slot.done) {
+                            break;
+                        }
+                        this.window.poll();
+                    }
+                    count++;
+                    if (slot.value != null) {
+                        //noinspection unchecked
+                        this.sink.runLast((E) slot.value);
+                        this.consumed++;
+                    }
+                }
+            } catch (Throwable e) {
+                this.error = e;
+            }
+            return count > 0;
+        }
+
+        private boolean checkFinished() {
+            if (this.error != null) {
+                this.result.completeExceptionally(this.error);
+                return true;
+            }
+            synchronized (this) {
+                if (!this.exhausted || !this.window.isEmpty()) {
+                    return false;
+                }
+            }
+            this.result.complete(this.consumed);
+            return true;
+        }
+    }
+}
@@ -23,6 +23,8 @@
 
 package co.aikar.taskchain;
 
+import co.aikar.taskchain.TaskChainDataWrappers.*;
+
 import java.util.concurrent.CompletableFuture;
 import java.util.function.Consumer;
 
@@ -181,4 +183,260 @@ public class TaskChainTasks {
 
         void run(Runnable next);
     }
+
+    /**
+     * A task that takes and returns a int without boxing it between tasks.
+     *
+     * The input is the int returned by the previous primitive task, or the previous task's result if it was a Number.
+     * A null result is passed as 0, and any other result fails the chain with an IllegalStateException.
+     */
+    public interface IntTask extends Task<Integer, Integer> {
+        @Override
+        default Integer run(Integer input) {
+            return runInt(input);
+        }
+
+        int runInt(int input);
+    }
+
+    /**
+     * A int task that expects no input.
+     * @see IntTask
+     */
+    public interface IntFirstTask extends IntTask {
+        @Override
+        default int runInt(int input) {
+            return runInt();
+        }
+
+        int runInt();
+    }
+
+    /**
+     * A task that takes a int without boxing it, but will not provide a response.
+     * @see IntTask
+     */
+    public interface IntLastTask extends Task<Object, Integer> {
+        @Override
+        default Object run(Integer input) {
+            runLast(input);
+            return null;
+        }
+
+        void runLast(int input);
+    }
+
+    /**
+     * A task that takes and returns a long without boxing it between tasks.
+     *
+     * The input is the long returned by the previous primitive task, or the previous task's result if it was a Number.
+     * A null result is passed as 0, and any other result fails the chain with an IllegalStateException.
+     */
+    public interface LongTask extends Task<Long, Long> {
+        @Override
+        default Long run(Long input) {
+            return runLong(input);
+        }
+
+        long runLong(long input);
+    }
+
+    /**
+     * A long task that expects no input.
+     * @see LongTask
+     */
+    public interface LongFirstTask extends LongTask {
+        @Override
+        default long runLong(long input) {
+            return runLong();
+        }
+
+        long runLong();
+    }
+
+    /**
+     * A task that takes a long without boxing it, but will not provide a response.
+     * @see LongTask
+     */
+    public interface LongLastTask extends Task<Object, Long> {
+        @Override
+        default Object run(Long input) {
+            runLast(input);
+            return null;
+        }
+
+        void runLast(long input);
+    }
+
+    /**
+     * A task that takes and returns a double without boxing it between tasks.
+     *
+     * The input is the double returned by the previous primitive task, or the previous task's result if it was a Number.
+     * A null result is passed as 0, and any other result fails the chain with an IllegalStateException.
+     */
+    public interface DoubleTask extends Task<Double, Double> {
+        @Override
+        default Double run(Double input) {
+            return runDouble(input);
+        }
+
+        double runDouble(double input);
+    }
+
+    /**
+     * A double task that expects no input.
+     * @see DoubleTask
+     */
+    public interface DoubleFirstTask extends DoubleTask {
+        @Override
+        default double runDouble(double input) {
+            return runDouble();
+        }
+
+        double runDouble();
+    }
+
+    /**
+     * A task that takes a double without boxing it, but will not provide a response.
+     * @see DoubleTask
+     */
+    public interface DoubleLastTask extends Task<Object, Double> {
+        @Override
+        default Object run(Double input) {
+            runLast(input);
+            return null;
+        }
+
+        void runLast(double input);
+    }
+
+    /**
+     * A task that receives 2 values, either emitted with {@link TaskChain#emit} or returned with {@link TaskChain#multi}
+     */
+    public interface Task2<R, D1, D2> extends Task<R, Data2<D1, D2>> {
+        @Override
+        default R run(Data2<D1, D2> data) {
+            return run(data.var1, data.var2);
+        }
+
+        R run(D1 var1, D2 var2);
+    }
+
+    /**
+     * A task that receives 2 values, but will not provide a response.
+     * @see Task2
+     */
+    public interface LastTask2<D1, D2> extends Task2<Object, D1, D2> {
+        @Override
+        default Object run(D1 var1, D2 var2) {
+            runLast(var1, var2);
+            return null;
+        }
+
+        void runLast(D1 var1, D2 var2);
+    }
+
+    /**
+     * A task that receives 3 values, either emitted with {@link TaskChain#emit} or returned with {@link TaskChain#multi}
+     */
+    public interface Task3<R, D1, D2, D3> extends Task<R, Data3<D1, D2, D3>> {
+        @Override
+        default R run(Data3<D1, D2, D3> data) {
+            return run(data.var1, data.var2, data.var3);
+        }
+
+        R run(D1 var1, D2 var2, D3 var3);
+    }
+
+    /**
+     * A task that receives 3 values, but will not provide a response.
+     * @see Task3
+     */
+    public interface LastTask3<D1, D2, D3> extends Task3<Object, D1, D2, D3> {
+        @Override
+        default Object run(D1 var1, D2 var2, D3 var3) {
+            runLast(var1, var2, var3);
+            return null;
+        }
+
+        void runLast(D1 var1, D2 var2, D3 var3);
+    }
+
+    /**
+     * A task that receives 4 values, either emitted with {@link TaskChain#emit} or returned with {@link TaskChain#multi}
+     */
+    public interface Task4<R, D1, D2, D3, D4> extends Task<R, Data4<D1, D2, D3, D4>> {
+        @Override
+        default R run(Data4<D1, D2, D3, D4> data) {
+            return run(data.var1, data.var2, data.var3, data.var4);
+        }
+
+        R run(D1 var1, D2 var2, D3 var3, D4 var4);
+    }
+
+    /**
+     * A task that receives 4 values, but will not provide a response.
+     * @see Task4
+     */
+    public interface LastTask4<D1, D2, D3, D4> extends Task4<Object, D1, D2, D3, D4> {
+        @Override
+        default Object run(D1 var1, D2 var2, D3 var3, D4 var4) {
+            runLast(var1, var2, var3, var4);
+            return null;
+        }
+
+        void runLast(D1 var1, D2 var2, D3 var3, D4 var4);
+    }
+
+    /**
+     * A task that receives 5 values, either emitted with {@link TaskChain#emit} or returned with {@link TaskChain#multi}
+     */
+    public interface Task5<R, D1, D2, D3, D4, D5> extends Task<R, Data5<D1, D2, D3, D4, D5>> {
+        @Override
+        default R run(Data5<D1, D2, D3, D4, D5> data) {
+            return run(data.var1, data.var2, data.var3, data.var4, data.var5);
+        }
+
+        R run(D1 var1, D2 var2, D3 var3, D4 var4, D5 var5);
+    }
+
+    /**
+     * A task that receives 5 values, but will not provide a response.
+     * @see Task5
+     */
+    public interface LastTask5<D1, D2, D3, D4, D5> extends Task5<Object, D1, D2, D3, D4, D5> {
+        @Override
+        default Object run(D1 var1, D2 var2, D3 var3, D4 var4, D5 var5) {
+            runLast(var1, var2, var3, var4, var5);
+            return null;
+        }
+
+        void runLast(D1 var1, D2 var2, D3 var3, D4 var4, D5 var5);
+    }
+
+    /**
+     * A task that receives 6 values, either emitted with {@link TaskChain#emit} or returned with {@link TaskChain#multi}
+     */
+    public interface Task6<R, D1, D2, D3, D4, D5, D6> extends Task<R, Data6<D1, D2, D3, D4, D5, D6>> {
+        @Override
+        default R run(Data6<D1, D2, D3, D4, D5, D6> data) {
+            return run(data.var1, data.var2, data.var3, data.var4, data.var5, data.var6);
+        }
+
+        R run(D1 var1, D2 var2, D3 var3, D4 var4, D5 var5, D6 var6);
+    }
+
+    /**
+     * A task that receives 6 values, but will not provide a response.
+     * @see Task6
+     */
+    public interface LastTask6<D1, D2, D3, D4, D5, D6> extends Task6<Object, D1, D2, D3, D4, D5, D6> {
+        @Override
+        default Object run(D1 var1, D2 var2, D3 var3, D4 var4, D5 var5, D6 var6) {
+            runLast(var1, var2, var3, var4, var5, var6);
+            return null;
+        }
+
+        void runLast(D1 var1, D2 var2, D3 var3, D4 var4, D5 var5, D6 var6);
+    }
 }
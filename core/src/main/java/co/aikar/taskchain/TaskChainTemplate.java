@@ -0,0 +1,52 @@
+/*
+ * Copyright (c) 2016-2017 Daniel Ennis (Aikar) - MIT License
+ *
+ *  Permission is hereby granted, free of charge, to any person obtaining
+ *  a copy of this software and associated documentation files (the
+ *  "Software"), to deal in the Software without restriction, including
+ *  without limitation the rights to use, copy, modify, merge, publish,
+ *  distribute, sublicense, and/or sell copies of the Software, and to
+ *  permit persons to whom the Software is furnished to do so, subject to
+ *  the following conditions:
+ *
+ *  The above copyright notice and this permission notice shall be
+ *  included in all copies or substantial portions of the Software.
+ *
+ *  THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND,
+ *  EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF
+ *  MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND
+ *  NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE
+ *  LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION
+ *  OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION
+ *  WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package co.aikar.taskchain;
+
+/**
+ * A reusable sequence of tasks that can be added to any chain with {@link TaskChain#then(TaskChainTemplate)}.
+ *
+ * The tasks are added directly to the chain, so they share its Task Data, error handler and thread,
+ * without creating and executing another chain.
+ *
+ * Example: TaskChainTemplate&lt;UUID, PlayerData&gt; loadData = chain -&gt; chain.async(db::load).sync(cache::put);
+ *
+ * @param <A> Type the first task of the template accepts
+ * @param <R> Type the last task of the template returns
+ */
+@FunctionalInterface
+public interface TaskChainTemplate <A, R> {
+    /**
+     * Adds the template's tasks to the chain
+     * @param chain The chain to add tasks to
+     * @return The same chain, after adding the tasks
+     */
+    TaskChain<R> apply(TaskChain<A> chain);
+
+    /**
+     * @return A template that adds this template's tasks, followed by the next template's tasks
+     */
+    default <V> TaskChainTemplate<A, V> andThen(TaskChainTemplate<R, V> next) {
+        return (chain) -> next.apply(this.apply(chain));
+    }
+}
@@ -0,0 +1,258 @@
+/*
+ * Copyright (c) 2016-2017 Daniel Ennis (Aikar) - MIT License
+ *
+ *  Permission is hereby granted, free of charge, to any person obtaining
+ *  a copy of this software and associated documentation files (the
+ *  "Software"), to deal in the Software without restriction, including
+ *  without limitation the rights to use, copy, modify, merge, publish,
+ *  distribute, sublicense, and/or sell copies of the Software, and to
+ *  permit persons to whom the Software is furnished to do so, subject to
+ *  the following conditions:
+ *
+ *  The above copyright notice and this permission notice shall be
+ *  included in all copies or substantial portions of the Software.
+ *
+ *  THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND,
+ *  EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF
+ *  MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND
+ *  NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE
+ *  LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION
+ *  OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION
+ *  WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package co.aikar.taskchain;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Runs on the main thread once per game unit, by rescheduling itself with {@link GameInterface#scheduleTask(int, Runnable)}.
+ *
+ * Measures how long ticks actually take, and releases low priority sync tasks once ticks have headroom again.
+ * Also holds a hashed wheel of delayed tasks, so every delay in the factory shares this one scheduled task
+ * instead of scheduling one each.
+ * Stops rescheduling itself once the factory shuts down.
+ */
+final class TaskChainTicker implements Runnable {
+    private static final double ALPHA = 0.2;
+    private static final int WHEEL_SIZE = 512;
+
+    private final TaskChainFactory factory;
+    private final GameInterface impl;
+    private final Queue<Deferred> deferred = new ConcurrentLinkedQueue<>();
+    private final Queue<Delayed> inbox = new ConcurrentLinkedQueue<>();
+    private final List<Delayed>[] wheel;
+    private volatile long tick;
+    private long lastTick;
+    private boolean ticking = false;
+    private volatile boolean inline = false;
+    private volatile double averageTick;
+    volatile long lagThreshold = TimeUnit.MILLISECONDS.toNanos(55);
+    volatile long maxDeferral = TimeUnit.SECONDS.toNanos(5);
+
+    TaskChainTicker(TaskChainFactory factory) {
+        this.factory = factory;
+        this.impl = factory.getImplementation();
+        //noinspection unchecked
+        this.wheel = new List[WHEEL_SIZE];
+        for (int i = 0; i < WHEEL_SIZE; i++) {
+            this.wheel[i] = new ArrayList<>();
+        }
+    }
+
+    void start() {
+        this.lastTick = System.nanoTime();
+        this.impl.scheduleTask(1, this);
+    }
+
+    @Override
+    public void run() {
+        if (this.factory.shutdown || this.inline) {
+            return;
+        }
+        if (this.ticking) {
+            // The platform ran the reschedule inline, such as after the plugin was disabled, so there are no more ticks
+            this.inline = true;
+            return;
+        }
+        this.ticking = true;
+        try {
+            this.impl.scheduleTask(1, this);
+        } finally {
+            this.ticking = false;
+        }
+
+        final long now = System.nanoTime();
+        final long interval = now - this.lastTick;
+        this.lastTick = now;
+        final double average = this.averageTick;
+        this.averageTick = average == 0 ? interval : average + (interval - average) * ALPHA;
+
+        final long tick = ++this.tick;
+        fillWheel();
+        fireWheel(tick);
+        releaseDeferred(now);
+        if (this.inline) {
+            runDeferred();
+        }
+    }
+
+    /**
+     * Runs the task on the main thread after the given number of game units.
+     * During shutdown, or once the platform no longer schedules tasks, the task runs immediately on the current thread.
+     */
+    void schedule(int gameUnits, Runnable task) {
+        if (this.factory.shutdown || this.inline) {
+            task.run();
+            return;
+        }
+        this.inbox.add(new Delayed(task, this.tick + Math.max(1, gameUnits)));
+    }
+
+    /**
+     * @return Number of ticks since the ticker started
+     */
+    long getTick() {
+        return this.tick;
+    }
+
+    /**
+     * @return Average time between ticks, in nanoseconds. 0 until the first tick has been measured
+     */
+    double getAverageTick() {
+        return this.averageTick;
+    }
+
+    boolean isLagging() {
+        return this.averageTick > this.lagThreshold;
+    }
+
+    /**
+     * @return If a low priority sync task has to wait, because the server is lagging or others are already waiting
+     */
+    boolean shouldDefer() {
+        return isLagging() || !this.deferred.isEmpty();
+    }
+
+    /**
+     * Holds a sync task back until ticks have headroom, or it has waited the max deferral
+     */
+    void defer(Runnable task) {
+        if (this.inline) {
+            task.run();
+            return;
+        }
+        this.deferred.add(new Deferred(task, System.nanoTime()));
+    }
+
+    /**
+     * Runs every deferred and delayed task now, used when shutting down
+     */
+    void runDeferred() {
+        Deferred next;
+        while ((next = this.deferred.poll()) != null) {
+            runTask(next.task);
+        }
+        fillWheel();
+        for (List<Delayed> bucket : this.wheel) {
+            if (bucket.isEmpty()) {
+                continue;
+            }
+            final List<Delayed> due = new ArrayList<>(bucket);
+            bucket.clear();
+            for (Delayed delayed : due) {
+                runTask(delayed.task);
+            }
+        }
+    }
+
+    private void fillWheel() {
+        Delayed delayed;
+        while ((delayed = this.inbox.poll()) != null) {
+            // Added after its tick was read but filed after that tick fired, so fire it this tick instead of a lap later
+            final long dueTick = Math.max(delayed.dueTick, this.tick);
+            this.wheel[(int) (dueTick & (WHEEL_SIZE - 1))].add(delayed);
+        }
+    }
+
+    /**
+     * Runs the tasks in this tick's bucket that are due. Delays longer than the wheel stay for another lap.
+     */
+    private void fireWheel(long tick) {
+        final List<Delayed> bucket = this.wheel[(int) (tick & (WHEEL_SIZE - 1))];
+        if (bucket.isEmpty()) {
+            return;
+        }
+        int kept = 0;
+        final int size = bucket.size();
+        final List<Delayed> due = new ArrayList<>(size);
+        for (int i = 0; i < size; i++) {
+            final Delayed delayed = bucket.get(i);
+            if (delayed.dueTick <= tick) {
+                due.add(delayed);
+            } else {
+                bucket.set(kept++, delayed);
+            }
+        }
+        bucket.subList(kept, size).clear();
+        for (Delayed delayed : due) {
+            runTask(delayed.task);
+        }
+    }
+
+    /**
+     * While lagging, only tasks that have waited too long are released. Otherwise tasks are released
+     * in order until the headroom left under the lag threshold has been used, and at least one per tick.
+     */
+    private void releaseDeferred(long now) {
+        final boolean lagging = isLagging();
+        final long budget = lagging ? 0 : Math.max(0, this.lagThreshold - (long) this.averageTick);
+        boolean released = false;
+        Deferred next;
+        while ((next = this.deferred.peek()) != null && next.deferredAt <= now) {
+            if (lagging) {
+                if (now - next.deferredAt < this.maxDeferral) {
+                    return;
+                }
+            } else if (released && System.nanoTime() - now >= budget) {
+                return;
+            }
+            this.deferred.poll();
+            released = true;
+            runTask(next.task);
+        }
+    }
+
+    private static void runTask(Runnable task) {
+        try {
+            task.run();
+        } catch (Exception e) {
+            TaskChainUtil.logError("TaskChain Exception in delayed task: " + e.getMessage());
+            e.printStackTrace();
+        }
+    }
+
+    private static class Delayed {
+        private final Runnable task;
+        private final long dueTick;
+
+        Delayed(Runnable task, long dueTick) {
+            this.task = task;
+            this.dueTick = dueTick;
+        }
+    }
+
+    private static class Deferred {
+        private final Runnable task;
+        private final long deferredAt;
+
+        Deferred(Runnable task, long deferredAt) {
+            this.task = task;
+            this.deferredAt = deferredAt;
+        }
+    }
+}
@@ -0,0 +1,312 @@
+/*
+ * Copyright (c) 2016-2017 Daniel Ennis (Aikar) - MIT License
+ *
+ *  Permission is hereby granted, free of charge, to any person obtaining
+ *  a copy of this software and associated documentation files (the
+ *  "Software"), to deal in the Software without restriction, including
+ *  without limitation the rights to use, copy, modify, merge, publish,
+ *  distribute, sublicense, and/or sell copies of the Software, and to
+ *  permit persons to whom the Software is furnished to do so, subject to
+ *  the following conditions:
+ *
+ *  The above copyright notice and this permission notice shall be
+ *  included in all copies or substantial portions of the Software.
+ *
+ *  THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND,
+ *  EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF
+ *  MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND
+ *  NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE
+ *  LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION
+ *  OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION
+ *  WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package co.aikar.taskchain;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+
+/**
+ * A set of named tasks that declare which other tasks they depend on, ran as a single step with {@link TaskChain#graph(TaskGraph)}.
+ *
+ * Each task starts as soon as everything it depends on has finished, so independent tasks run at the same time.
+ * Dependencies must be added before the tasks that depend on them, so a graph can not have cycles.
+ *
+ * Example, loading 2 things at once, combining them on main thread, then saving 2 things at once:
+ *   new TaskGraph()
+ *       .async("a", r -&gt; loadA(r.getInput()))
+ *       .async("b", r -&gt; loadB(r.getInput()))
+ *       .sync("c", r -&gt; combine(r.get("a"), r.get("b")), "a", "b")
+ *       .async("saveC", r -&gt; saveC(r.get("c")), "c")
+ *       .async("saveD", r -&gt; saveD(r.get("c")), "c");
+ *
+ * If a task fails, no further tasks are started and the chain's error handler is called, like any other task.
+ * If a task aborts with {@link TaskChain#abort()}, the chain is aborted.
+ *
+ * A graph may be reused by any number of chains, but tasks must not be added to it after it has been ran.
+ */
+@SuppressWarnings("WeakerAccess")
+public class TaskGraph {
+    private static final Node[] NO_NODES = new Node[0];
+
+    private final Map<String, Node> nodesByName = new HashMap<>();
+    private final List<Node> nodes = new ArrayList<>();
+
+    /**
+     * A task in the graph, that receives the results of the tasks ran before it
+     * @param <R> Return type of the task
+     */
+    public interface GraphTask <R> {
+        R run(Results results);
+    }
+
+    /**
+     * A task in the graph that returns a future to be completed later
+     * @param <R> Type of the future's result
+     */
+    public interface GraphFutureTask <R> {
+        CompletableFuture<R> runFuture(Results results);
+    }
+
+    /**
+     * Adds a task to run on the main thread
+     * @param name Name of the task, used to depend on it and get its result
+     * @param task The task to execute
+     * @param dependsOn Names of the tasks that must finish first
+     */
+    public TaskGraph sync(String name, GraphTask<?> task, String... dependsOn) {
+        return add(name, Kind.SYNC, task, dependsOn);
+    }
+
+    /**
+     * Adds a task to run off the main thread
+     * @see #sync(String, GraphTask, String...)
+     */
+    public TaskGraph async(String name, GraphTask<?> task, String... dependsOn) {
+        return add(name, Kind.ASYNC, task, dependsOn);
+    }
+
+    /**
+     * Adds a task to run on the thread that finished its last dependency, or the thread the graph started on
+     * @see #sync(String, GraphTask, String...)
+     */
+    public TaskGraph current(String name, GraphTask<?> task, String... dependsOn) {
+        return add(name, Kind.CURRENT, task, dependsOn);
+    }
+
+    /**
+     * Adds a task that returns a future, started like {@link #current(String, GraphTask, String...)}
+     * @see #sync(String, GraphTask, String...)
+     */
+    public TaskGraph future(String name, GraphFutureTask<?> task, String... dependsOn) {
+        return add(name, Kind.FUTURE, task, dependsOn);
+    }
+
+    private synchronized TaskGraph add(String name, Kind kind, Object task, String[] dependsOn) {
+        if (this.nodesByName.containsKey(name)) {
+            throw new IllegalArgumentException("TaskGraph already has a task named " + name);
+        }
+        final Node[] dependencies = dependsOn.length == 0 ? NO_NODES : new Node[dependsOn.length];
+        for (int i = 0; i < dependsOn.length; i++) {
+            final Node dependency = this.nodesByName.get(dependsOn[i]);
+            if (dependency == null) {
+                throw new IllegalArgumentException("Task " + name + " depends on " + dependsOn[i] + ", which must be added first");
+            }
+            dependencies[i] = dependency;
+        }
+        final Node node = new Node(this.nodes.size(), kind, task, dependencies);
+        for (Node dependency : dependencies) {
+            dependency.dependents.add(node);
+        }
+        this.nodes.add(node);
+        this.nodesByName.put(name, node);
+        return this;
+    }
+
+    synchronized CompletableFuture<Results> run(TaskChain<?> chain, TaskChainFactory factory, Object input) {
+        return new Run(chain, factory, new Results(input, this.nodesByName, this.nodes.size())).start();
+    }
+
+    /**
+     * The input of the graph, and the results of every task that has finished
+     */
+    public static class Results {
+        private final Object input;
+        private final Map<String, Node> nodesByName;
+        private final Object[] values;
+
+        private Results(Object input, Map<String, Node> nodesByName, int size) {
+            this.input = input;
+            this.nodesByName = nodesByName;
+            this.values = new Object[size];
+        }
+
+        /**
+         * @return The output of the task before the graph
+         */
+        public <T> T getInput() {
+            //noinspection unchecked
+            return (T) this.input;
+        }
+
+        /**
+         * @param name Name of a task this task depends on, directly or indirectly
+         * @return The result of the task
+         */
+        public <T> T get(String name) {
+            final Node node = this.nodesByName.get(name);
+            if (node == null) {
+                throw new IllegalArgumentException("TaskGraph has no task named " + name);
+            }
+            synchronized (this.values) {
+                //noinspection unchecked
+                return (T) this.values[node.index];
+            }
+        }
+
+        private void set(Node node, Object value) {
+            synchronized (this.values) {
+                this.values[node.index] = value;
+            }
+        }
+    }
+
+    private enum Kind {
+        SYNC, ASYNC, CURRENT, FUTURE
+    }
+
+    private static class Node {
+        private final int index;
+        private final Kind kind;
+        private final Object task;
+        private final Node[] dependencies;
+        private final List<Node> dependents = new ArrayList<>();
+
+        Node(int index, Kind kind, Object task, Node[] dependencies) {
+            this.index = index;
+            this.kind = kind;
+            this.task = task;
+            this.dependencies = dependencies;
+        }
+    }
+
+    /**
+     * A single execution of the graph for a chain
+     */
+    private class Run {
+        private final TaskChain<?> chain;
+        private final TaskChainFactory factory;
+        private final GameInterface impl;
+        private final Results results;
+        private final AtomicIntegerArray waitingOn;
+        private final AtomicInteger remaining;
+        private final AtomicBoolean failed = new AtomicBoolean();
+        private final CompletableFuture<Results> future = new CompletableFuture<>();
+
+        Run(TaskChain<?> chain, TaskChainFactory factory, Results results) {
+            this.chain = chain;
+            this.factory = factory;
+            this.impl = factory.getImplementation();
+            this.results = results;
+            this.waitingOn = new AtomicIntegerArray(nodes.size());
+            this.remaining = new AtomicInteger(nodes.size());
+            for (Node node : nodes) {
+                this.waitingOn.set(node.index, node.dependencies.length);
+            }
+        }
+
+        private CompletableFuture<Results> start() {
+            if (nodes.isEmpty()) {
+                this.future.complete(this.results);
+                return this.future;
+            }
+            for (Node node : nodes) {
+                if (node.dependencies.length == 0) {
+                    schedule(node);
+                }
+            }
+            return this.future;
+        }
+
+        private void schedule(Node node) {
+            if (this.failed.get()) {
+                return;
+            }
+            switch (node.kind) {
+                case ASYNC:
+                    // Once shut down, the async queue runs the task on the current thread
+                    this.impl.postAsync(() -> execute(node));
+                    break;
+                case SYNC:
+                    if (this.impl.isMainThread()) {
+                        execute(node);
+                    } else if (this.factory.shutdown) {
+                        // The main thread no longer ticks, run on the thread calling shutdown like chains do
+                        if (!this.factory.postToShutdownThread(() -> execute(node))) {
+                            execute(node);
+                        }
+                    } else {
+                        this.impl.postToMain(() -> execute(node));
+                    }
+                    break;
+                default:
+                    execute(node);
+                    break;
+            }
+        }
+
+        private void execute(Node node) {
+            if (this.failed.get()) {
+                return;
+            }
+            final TaskChain<?> prevChain = TaskChain.swapCurrentChain(this.chain);
+            try {
+                if (node.kind == Kind.FUTURE) {
+                    final CompletableFuture<?> result = ((GraphFutureTask<?>) node.task).runFuture(this.results);
+                    if (result == null) {
+                        finished(node, null);
+                    } else {
+                        result.whenComplete((r, e) -> {
+                            if (e != null) {
+                                fail(e);
+                            } else {
+                                finished(node, r);
+                            }
+                        });
+                    }
+                } else {
+                    finished(node, ((GraphTask<?>) node.task).run(this.results));
+                }
+            } catch (Throwable e) {
+                fail(e);
+            } finally {
+                TaskChain.swapCurrentChain(prevChain);
+            }
+        }
+
+        private void finished(Node node, Object value) {
+            this.results.set(node, value);
+            if (this.remaining.decrementAndGet() == 0) {
+                this.future.complete(this.results);
+                return;
+            }
+            for (Node dependent : node.dependents) {
+                if (this.waitingOn.decrementAndGet(dependent.index) == 0) {
+                    schedule(dependent);
+                }
+            }
+        }
+
+        private void fail(Throwable e) {
+            if (this.failed.compareAndSet(false, true)) {
+                this.future.completeExceptionally(TaskChainFutures.unwrap(e));
+            }
+        }
+    }
+}
@@ -0,0 +1,154 @@
+/*
+ * Copyright (c) 2016-2017 Daniel Ennis (Aikar) - MIT License
+ *
+ *  Permission is hereby granted, free of charge, to any person obtaining
+ *  a copy of this software and associated documentation files (the
+ *  "Software"), to deal in the Software without restriction, including
+ *  without limitation the rights to use, copy, modify, merge, publish,
+ *  distribute, sublicense, and/or sell copies of the Software, and to
+ *  permit persons to whom the Software is furnished to do so, subject to
+ *  the following conditions:
+ *
+ *  The above copyright notice and this permission notice shall be
+ *  included in all copies or substantial portions of the Software.
+ *
+ *  THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND,
+ *  EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF
+ *  MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND
+ *  NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE
+ *  LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION
+ *  OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION
+ *  WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package co.aikar.taskchain;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Consumer;
+
+/**
+ * Holds the latest value for each key in memory and writes them in batches, created by
+ * {@link TaskChainFactory#newWriteBehindBuffer(Consumer, int, int)}
+ *
+ * A batch is written by a single async chain once the flush interval has passed since the first unwritten value,
+ * or as soon as the number of unwritten keys reaches the pending limit. Only one batch is written at a time.
+ * If the writer throws, the batch is put back unless a newer value was added for the same key, and the error
+ * is passed to the chain's error handler.
+ *
+ * Anything not yet written is written on the current thread when the factory shuts down,
+ * and so is anything put after that.
+ *
+ * @param <K> Key type, such as a player UUID
+ * @param <V> Value type to write
+ */
+@SuppressWarnings("WeakerAccess")
+public class WriteBehindBuffer <K, V> {
+    private final TaskChainFactory factory;
+    private final Consumer<Map<K, V>> writer;
+    private final int maxPending;
+    private final int flushInterval;
+    private final Map<K, V> pending = new ConcurrentHashMap<>();
+    private final AtomicBoolean timerScheduled = new AtomicBoolean();
+    private final AtomicBoolean flushing = new AtomicBoolean();
+    private final Object writeLock = new Object();
+
+    WriteBehindBuffer(TaskChainFactory factory, Consumer<Map<K, V>> writer, int maxPending, int flushInterval) {
+        if (maxPending < 1) {
+            throw new IllegalArgumentException("maxPending must be at least 1");
+        }
+        this.factory = factory;
+        this.writer = writer;
+        this.maxPending = maxPending;
+        this.flushInterval = flushInterval;
+    }
+
+    /**
+     * Stores the value to be written with the next batch, replacing any unwritten value for the same key.
+     *
+     * Once the factory is shutting down, the value is written on the current thread instead.
+     */
+    public void put(K key, V value) {
+        Objects.requireNonNull(key, "WriteBehindBuffer keys must not be null");
+        if (value == null) {
+            throw new NullPointerException("WriteBehindBuffer values must not be null, key: " + key);
+        }
+        this.pending.put(key, value);
+        if (this.factory.shutdown) {
+            // The shutdown flush may already have run, and nothing will schedule another
+            flushNow();
+            return;
+        }
+        if (this.pending.size() >= this.maxPending) {
+            flush();
+        } else {
+            scheduleFlush();
+        }
+    }
+
+    private void scheduleFlush() {
+        if (!this.factory.shutdown && this.timerScheduled.compareAndSet(false, true)) {
+            this.factory.getTicker().schedule(this.flushInterval, () -> {
+                this.timerScheduled.set(false);
+                flush();
+            });
+        }
+    }
+
+    /**
+     * Starts writing a batch now, unless one is already being written.
+     */
+    public void flush() {
+        if (this.pending.isEmpty() || !this.flushing.compareAndSet(false, true)) {
+            return;
+        }
+        this.factory.newChain()
+            .async(this::flushNow)
+            .execute(() -> {
+                this.flushing.set(false);
+                if (this.pending.size() >= this.maxPending) {
+                    flush();
+                } else if (!this.pending.isEmpty()) {
+                    // Values added while this batch was written, or put back after the writer failed
+                    scheduleFlush();
+                }
+            });
+    }
+
+    /**
+     * Writes everything pending on the current thread, waiting for any batch that is already being written.
+     */
+    public void flushNow() {
+        synchronized (this.writeLock) {
+            if (this.pending.isEmpty()) {
+                return;
+            }
+            final Map<K, V> batch = new HashMap<>();
+            for (Map.Entry<K, V> entry : this.pending.entrySet()) {
+                final K key = entry.getKey();
+                final V value = entry.getValue();
+                if (this.pending.remove(key, value)) {
+                    batch.put(key, value);
+                }
+            }
+            try {
+                this.writer.accept(batch);
+            } catch (RuntimeException e) {
+                for (Map.Entry<K, V> entry : batch.entrySet()) {
+                    this.pending.putIfAbsent(entry.getKey(), entry.getValue());
+                }
+                throw e;
+            }
+        }
+    }
+
+    /**
+     * @return Number of keys waiting to be written
+     */
+    public int getPending() {
+        return this.pending.size();
+    }
+}
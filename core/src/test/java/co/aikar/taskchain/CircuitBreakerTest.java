@@ -0,0 +1,182 @@
+/*
+ * Copyright (c) 2016-2017 Daniel Ennis (Aikar) - MIT License
+ *
+ *  Permission is hereby granted, free of charge, to any person obtaining
+ *  a copy of this software and associated documentation files (the
+ *  "Software"), to deal in the Software without restriction, including
+ *  without limitation the rights to use, copy, modify, merge, publish,
+ *  distribute, sublicense, and/or sell copies of the Software, and to
+ *  permit persons to whom the Software is furnished to do so, subject to
+ *  the following conditions:
+ *
+ *  The above copyright notice and this permission notice shall be
+ *  included in all copies or substantial portions of the Software.
+ *
+ *  THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND,
+ *  EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF
+ *  MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND
+ *  NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE
+ *  LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION
+ *  OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION
+ *  WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package co.aikar.taskchain;
+
+import co.aikar.taskchain.TaskChainCircuitBreaker.State;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class CircuitBreakerTest {
+    private LaneGameInterface game;
+    private TaskChainFactory factory;
+    private final List<Exception> errors = new CopyOnWriteArrayList<>();
+
+    @Before
+    public void setUp() {
+        this.game = new LaneGameInterface(0);
+        this.factory = new TaskChainFactory(this.game);
+    }
+
+    @After
+    public void tearDown() {
+        this.game.close();
+    }
+
+    private boolean run(ChainBuilder builder) throws Exception {
+        final CompletableFuture<Boolean> done = new CompletableFuture<>();
+        this.game.postToMain(() -> builder.build(this.factory.newChain())
+            .execute(done::complete, (e, task) -> this.errors.add(e)));
+        return done.get(5, TimeUnit.SECONDS);
+    }
+
+    private Exception lastError() {
+        return (Exception) TaskChainFutures.unwrap(this.errors.get(this.errors.size() - 1));
+    }
+
+    @Test
+    public void opensOnceFailureRateIsReached() throws Exception {
+        final TaskChainCircuitBreaker breaker = this.factory.registerCircuitBreaker("db",
+            new TaskChainCircuitBreaker(4, 0.5, 1, TimeUnit.MINUTES));
+        final AtomicInteger calls = new AtomicInteger();
+
+        assertTrue(run(chain -> chain.asyncGuarded("db", (input) -> calls.incrementAndGet())));
+        assertFalse(run(chain -> chain.asyncGuarded("db", (input) -> {
+            calls.incrementAndGet();
+            throw new IllegalStateException("down");
+        })));
+        assertEquals(State.OPEN, breaker.getState());
+
+        assertFalse(run(chain -> chain.asyncGuarded("db", (input) -> calls.incrementAndGet())));
+        assertEquals(2, calls.get());
+        assertTrue(lastError() instanceof CircuitBreakerOpenException);
+    }
+
+    @Test
+    public void runsFallbackWhileOpen() throws Exception {
+        this.factory.registerCircuitBreaker("db", new TaskChainCircuitBreaker(2, 0.5, 1, TimeUnit.MINUTES));
+        assertFalse(run(chain -> chain.asyncGuarded("db", (input) -> {
+            throw new IllegalStateException("down");
+        })));
+
+        final CompletableFuture<String> result = new CompletableFuture<>();
+        assertTrue(run(chain -> chain
+            .asyncGuarded("db", (input) -> "live", (input) -> "cached")
+            .syncLast(result::complete)));
+        assertEquals("cached", result.getNow(null));
+    }
+
+    @Test
+    public void closesAfterSuccessfulTrialCall() throws Exception {
+        final TaskChainCircuitBreaker breaker = this.factory.registerCircuitBreaker("db",
+            new TaskChainCircuitBreaker(2, 0.5, 0, TimeUnit.MILLISECONDS));
+        assertFalse(run(chain -> chain.asyncGuarded("db", (input) -> {
+            throw new IllegalStateException("down");
+        })));
+        assertEquals(State.HALF_OPEN, breaker.getState());
+
+        assertTrue(run(chain -> chain.asyncGuarded("db", (input) -> "up")));
+        assertEquals(State.CLOSED, breaker.getState());
+    }
+
+    @Test
+    public void opensOnSlowCalls() throws Exception {
+        final TaskChainCircuitBreaker breaker = this.factory.registerCircuitBreaker("db",
+            new TaskChainCircuitBreaker(2, 1.0, 1, TimeUnit.MINUTES)
+                .setSlowCallThreshold(20, TimeUnit.MILLISECONDS, 1.0));
+
+        assertTrue(run(chain -> chain.asyncGuarded("db", (input) -> sleep(40))));
+        assertEquals(State.OPEN, breaker.getState());
+    }
+
+    @Test
+    public void queueWaitDoesNotCountAsSlow() throws Exception {
+        // A single async thread, so the guarded task waits behind the blocker
+        final TaskChainAsyncQueue queue = new TaskChainAsyncQueue(
+            new ThreadPoolExecutor(1, 1, 0, TimeUnit.MILLISECONDS, new LinkedBlockingQueue<>()));
+        final LaneGameInterface game = new LaneGameInterface(0) {
+            @Override
+            public AsyncQueue getAsyncQueue() {
+                return queue;
+            }
+        };
+        final TaskChainFactory factory = new TaskChainFactory(game);
+        final TaskChainCircuitBreaker breaker = factory.registerCircuitBreaker("db",
+            new TaskChainCircuitBreaker(1, 1.0, 1, TimeUnit.MINUTES)
+                .setSlowCallThreshold(50, TimeUnit.MILLISECONDS, 1.0));
+        try {
+            queue.postAsync(() -> sleep(100));
+            final CompletableFuture<Boolean> done = new CompletableFuture<>();
+            game.postToMain(() -> factory.newChain()
+                .asyncGuarded("db", (input) -> "fast")
+                .execute(done::complete));
+
+            assertTrue(done.get(5, TimeUnit.SECONDS));
+            assertEquals(State.CLOSED, breaker.getState());
+        } finally {
+            queue.shutdown(1, TimeUnit.SECONDS);
+            game.close();
+        }
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void rejectsFailureRateAboveOne() {
+        new TaskChainCircuitBreaker(10, 1.5, 1, TimeUnit.SECONDS);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void rejectsZeroFailureRate() {
+        new TaskChainCircuitBreaker(10, 0, 1, TimeUnit.SECONDS);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void rejectsNegativeOpenDuration() {
+        new TaskChainCircuitBreaker(10, 0.5, -1, TimeUnit.SECONDS);
+    }
+
+    private static Object sleep(long millis) {
+        try {
+            Thread.sleep(millis);
+        } catch (InterruptedException e) {
+            throw new RuntimeException(e);
+        }
+        return null;
+    }
+
+    private interface ChainBuilder {
+        TaskChain<?> build(TaskChain<?> chain);
+    }
+}
@@ -0,0 +1,115 @@
+/*
+ * Copyright (c) 2016-2017 Daniel Ennis (Aikar) - MIT License
+ *
+ *  Permission is hereby granted, free of charge, to any person obtaining
+ *  a copy of this software and associated documentation files (the
+ *  "Software"), to deal in the Software without restriction, including
+ *  without limitation the rights to use, copy, modify, merge, publish,
+ *  distribute, sublicense, and/or sell copies of the Software, and to
+ *  permit persons to whom the Software is furnished to do so, subject to
+ *  the following conditions:
+ *
+ *  The above copyright notice and this permission notice shall be
+ *  included in all copies or substantial portions of the Software.
+ *
+ *  THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND,
+ *  EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF
+ *  MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND
+ *  NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE
+ *  LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION
+ *  OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION
+ *  WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package co.aikar.taskchain;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class CoalescingSharedChainTest {
+    private LaneGameInterface game;
+    private TaskChainFactory factory;
+
+    @Before
+    public void setUp() {
+        this.game = new LaneGameInterface(0);
+        this.factory = new TaskChainFactory(this.game);
+    }
+
+    @After
+    public void tearDown() {
+        this.game.close();
+    }
+
+    /**
+     * Executes a chain that holds the queue until released, then the given number of waiting chains behind it
+     * @return The done result of every chain, the holding chain first
+     */
+    private List<CompletableFuture<Boolean>> queueBehindSlowChain(Coalesce coalesce, int waiting, List<Integer> ran) throws Exception {
+        final CountDownLatch release = new CountDownLatch(1);
+        final List<CompletableFuture<Boolean>> done = new ArrayList<>();
+        final CountDownLatch queued = new CountDownLatch(1);
+        this.game.postToMain(() -> {
+            final CompletableFuture<Boolean> slowDone = new CompletableFuture<>();
+            done.add(slowDone);
+            this.factory.newSharedChain("save", coalesce).async(() -> await(release)).execute(slowDone::complete);
+            for (int i = 1; i <= waiting; i++) {
+                final int index = i;
+                final CompletableFuture<Boolean> chainDone = new CompletableFuture<>();
+                done.add(chainDone);
+                this.factory.newSharedChain("save", coalesce).async(() -> ran.add(index)).execute(chainDone::complete);
+            }
+            queued.countDown();
+        });
+        assertTrue(queued.await(5, TimeUnit.SECONDS));
+        release.countDown();
+        for (CompletableFuture<Boolean> chainDone : done) {
+            chainDone.get(5, TimeUnit.SECONDS);
+        }
+        return done;
+    }
+
+    @Test
+    public void latestSkipsSupersededChains() throws Exception {
+        final List<Integer> ran = new CopyOnWriteArrayList<>();
+        final List<CompletableFuture<Boolean>> done = queueBehindSlowChain(Coalesce.LATEST, 3, ran);
+
+        assertEquals(Arrays.asList(3), ran);
+        assertTrue(done.get(0).getNow(null));
+        assertFalse(done.get(1).getNow(null));
+        assertFalse(done.get(2).getNow(null));
+        assertTrue(done.get(3).getNow(null));
+    }
+
+    @Test
+    public void noneRunsEveryChainInOrder() throws Exception {
+        final List<Integer> ran = new CopyOnWriteArrayList<>();
+        final List<CompletableFuture<Boolean>> done = queueBehindSlowChain(Coalesce.NONE, 3, ran);
+
+        assertEquals(Arrays.asList(1, 2, 3), ran);
+        for (CompletableFuture<Boolean> chainDone : done) {
+            assertTrue(chainDone.getNow(null));
+        }
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            throw new RuntimeException(e);
+        }
+    }
+}
@@ -0,0 +1,130 @@
+/*
+ * Copyright (c) 2016-2017 Daniel Ennis (Aikar) - MIT License
+ *
+ *  Permission is hereby granted, free of charge, to any person obtaining
+ *  a copy of this software and associated documentation files (the
+ *  "Software"), to deal in the Software without restriction, including
+ *  without limitation the rights to use, copy, modify, merge, publish,
+ *  distribute, sublicense, and/or sell copies of the Software, and to
+ *  permit persons to whom the Software is furnished to do so, subject to
+ *  the following conditions:
+ *
+ *  The above copyright notice and this permission notice shall be
+ *  included in all copies or substantial portions of the Software.
+ *
+ *  THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND,
+ *  EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF
+ *  MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND
+ *  NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE
+ *  LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION
+ *  OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION
+ *  WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package co.aikar.taskchain;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+public class DebounceThrottleTest {
+    private LaneGameInterface game;
+    private TaskChainFactory factory;
+    private final List<Exception> errors = new CopyOnWriteArrayList<>();
+    private final List<Integer> continued = new CopyOnWriteArrayList<>();
+
+    @Before
+    public void setUp() {
+        this.game = new LaneGameInterface(0);
+        this.factory = new TaskChainFactory(this.game);
+    }
+
+    @After
+    public void tearDown() {
+        this.game.close();
+    }
+
+    /**
+     * Executes one chain per value from the main thread, in a single burst
+     * @return The done result of each chain, in the order of the values
+     */
+    private List<Boolean> burst(StepBuilder step, Function<Integer, Object> keyFn, Integer... values) throws Exception {
+        final List<CompletableFuture<Boolean>> done = new ArrayList<>();
+        for (Integer ignored : values) {
+            done.add(new CompletableFuture<>());
+        }
+        this.game.postToMain(() -> {
+            for (int i = 0; i < values.length; i++) {
+                final Integer value = values[i];
+                step.build(this.factory.newChain().syncFirst(() -> value), keyFn)
+                    .syncLast(this.continued::add)
+                    .execute(done.get(i)::complete, (e, task) -> this.errors.add(e));
+            }
+        });
+        final List<Boolean> results = new ArrayList<>();
+        for (CompletableFuture<Boolean> chainDone : done) {
+            results.add(chainDone.get(5, TimeUnit.SECONDS));
+        }
+        return results;
+    }
+
+    @Test
+    public void debounceContinuesOnlyTheLastOfABurst() throws Exception {
+        final List<Boolean> done = burst((chain, keyFn) -> chain.debounce(keyFn, 50, TimeUnit.MILLISECONDS),
+            (value) -> "click", 1, 2, 3);
+
+        assertEquals(Arrays.asList(false, false, true), done);
+        assertEquals(Collections.singletonList(3), this.continued);
+        assertTrue(this.errors.isEmpty());
+    }
+
+    @Test
+    public void debounceKeepsKeysApart() throws Exception {
+        final List<Boolean> done = burst((chain, keyFn) -> chain.debounce(keyFn, 50, TimeUnit.MILLISECONDS),
+            (value) -> "click:" + (value % 2), 1, 2, 3, 4);
+
+        assertEquals(Arrays.asList(false, false, true, true), done);
+        assertEquals(2, this.continued.size());
+        assertTrue(this.continued.containsAll(Arrays.asList(3, 4)));
+    }
+
+    @Test
+    public void throttleContinuesFirstAndLastOfAnInterval() throws Exception {
+        final long start = System.nanoTime();
+        final List<Boolean> done = burst((chain, keyFn) -> chain.throttle(keyFn, 200, TimeUnit.MILLISECONDS),
+            (value) -> "move", 1, 2, 3);
+        final long took = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+
+        assertEquals(Arrays.asList(true, false, true), done);
+        assertEquals(Arrays.asList(1, 3), this.continued);
+        assertTrue("took " + took + "ms", took >= 150);
+        assertTrue(this.errors.isEmpty());
+    }
+
+    @Test
+    public void throttleLetsTheNextIntervalThrough() throws Exception {
+        assertEquals(Collections.singletonList(true), burst((chain, keyFn) -> chain.throttle(keyFn, 20, TimeUnit.MILLISECONDS),
+            (value) -> "move", 1));
+        Thread.sleep(100);
+        assertEquals(Collections.singletonList(true), burst((chain, keyFn) -> chain.throttle(keyFn, 20, TimeUnit.MILLISECONDS),
+            (value) -> "move", 2));
+
+        assertEquals(Arrays.asList(1, 2), this.continued);
+    }
+
+    private interface StepBuilder {
+        TaskChain<Integer> build(TaskChain<Integer> chain, Function<Integer, Object> keyFn);
+    }
+}
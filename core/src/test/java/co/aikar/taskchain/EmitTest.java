@@ -0,0 +1,101 @@
+/*
+ * Copyright (c) 2016-2017 Daniel Ennis (Aikar) - MIT License
+ *
+ *  Permission is hereby granted, free of charge, to any person obtaining
+ *  a copy of this software and associated documentation files (the
+ *  "Software"), to deal in the Software without restriction, including
+ *  without limitation the rights to use, copy, modify, merge, publish,
+ *  distribute, sublicense, and/or sell copies of the Software, and to
+ *  permit persons to whom the Software is furnished to do so, subject to
+ *  the following conditions:
+ *
+ *  The above copyright notice and this permission notice shall be
+ *  included in all copies or substantial portions of the Software.
+ *
+ *  THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND,
+ *  EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF
+ *  MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND
+ *  NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE
+ *  LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION
+ *  OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION
+ *  WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package co.aikar.taskchain;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class EmitTest {
+    private LaneGameInterface game;
+    private TaskChainFactory factory;
+    private final List<Exception> errors = new CopyOnWriteArrayList<>();
+
+    @Before
+    public void setUp() {
+        this.game = new LaneGameInterface(0);
+        this.factory = new TaskChainFactory(this.game);
+    }
+
+    @After
+    public void tearDown() {
+        this.game.close();
+    }
+
+    private boolean run(ChainBuilder builder) throws Exception {
+        final CompletableFuture<Boolean> done = new CompletableFuture<>();
+        this.game.postToMain(() -> builder.build(this.factory.newChain())
+            .execute(done::complete, (e, task) -> this.errors.add(e)));
+        return done.get(5, TimeUnit.SECONDS);
+    }
+
+    @Test
+    public void emittedValuesReachMultiValueTasks() throws Exception {
+        final CompletableFuture<String> result = new CompletableFuture<>();
+        assertTrue(run(chain -> chain
+            .syncFirst(() -> TaskChain.emit("a", 1))
+            .async2((String s, Integer i) -> TaskChain.emit(s, i, 2.5))
+            .syncLast3((String s, Integer i, Double d) -> result.complete(s + i + d))));
+
+        assertEquals("a12.5", result.getNow(null));
+        assertTrue(this.errors.isEmpty());
+    }
+
+    @Test
+    public void emittedValuesAreWrappedForSingleValueTasks() throws Exception {
+        final CompletableFuture<Object> result = new CompletableFuture<>();
+        assertTrue(run(chain -> chain
+            .syncFirst(() -> TaskChain.emit("a", 1))
+            .syncLast(result::complete)));
+
+        final TaskChainDataWrappers.Data2<?, ?> data = (TaskChainDataWrappers.Data2<?, ?>) result.getNow(null);
+        assertEquals("a", data.var1);
+        assertEquals(1, data.var2);
+    }
+
+    @Test
+    public void arityMismatchFailsTheChain() throws Exception {
+        final CompletableFuture<Boolean> ran = new CompletableFuture<>();
+        assertFalse(run(chain -> chain
+            .syncFirst(() -> TaskChain.emit("a", 1))
+            .syncLast3((Object a, Object b, Object c) -> ran.complete(true))));
+
+        assertFalse(ran.isDone());
+        assertEquals(1, this.errors.size());
+        assertTrue(this.errors.get(0) instanceof IllegalStateException);
+    }
+
+    private interface ChainBuilder {
+        TaskChain<?> build(TaskChain<?> chain);
+    }
+}
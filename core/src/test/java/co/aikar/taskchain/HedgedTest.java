@@ -0,0 +1,140 @@
+/*
+ * Copyright (c) 2016-2017 Daniel Ennis (Aikar) - MIT License
+ *
+ *  Permission is hereby granted, free of charge, to any person obtaining
+ *  a copy of this software and associated documentation files (the
+ *  "Software"), to deal in the Software without restriction, including
+ *  without limitation the rights to use, copy, modify, merge, publish,
+ *  distribute, sublicense, and/or sell copies of the Software, and to
+ *  permit persons to whom the Software is furnished to do so, subject to
+ *  the following conditions:
+ *
+ *  The above copyright notice and this permission notice shall be
+ *  included in all copies or substantial portions of the Software.
+ *
+ *  THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND,
+ *  EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF
+ *  MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND
+ *  NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE
+ *  LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION
+ *  OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION
+ *  WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package co.aikar.taskchain;
+
+import co.aikar.taskchain.TaskChainTasks.FutureTask;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.List;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+public class HedgedTest {
+    private LaneGameInterface game;
+    private TaskChainFactory factory;
+    private final List<Exception> errors = new CopyOnWriteArrayList<>();
+
+    @Before
+    public void setUp() {
+        this.game = new LaneGameInterface(0);
+        this.factory = new TaskChainFactory(this.game);
+    }
+
+    @After
+    public void tearDown() {
+        this.game.close();
+    }
+
+    private boolean run(ChainBuilder builder) throws Exception {
+        final CompletableFuture<Boolean> done = new CompletableFuture<>();
+        this.game.postToMain(() -> builder.build(this.factory.<Object>newChain())
+            .execute(done::complete, (e, task) -> this.errors.add(e)));
+        return done.get(5, TimeUnit.SECONDS);
+    }
+
+    @Test
+    public void fastTaskRunsOnce() throws Exception {
+        final AtomicInteger calls = new AtomicInteger();
+        final CompletableFuture<Object> result = new CompletableFuture<>();
+        assertTrue(run(chain -> chain
+            .hedged((input) -> calls.incrementAndGet(), 200, TimeUnit.MILLISECONDS, 3)
+            .syncLast(result::complete)));
+
+        assertEquals(1, result.getNow(null));
+        Thread.sleep(300);
+        assertEquals(1, calls.get());
+    }
+
+    @Test
+    public void slowCopyIsHedgedAndCancelled() throws Exception {
+        final CompletableFuture<String> slow = new CompletableFuture<>();
+        final AtomicInteger calls = new AtomicInteger();
+        final CompletableFuture<Object> result = new CompletableFuture<>();
+        assertTrue(run(chain -> chain
+            .hedged((FutureTask<String, Object>) (input) -> calls.incrementAndGet() == 1
+                ? slow : CompletableFuture.completedFuture("hedge"), 20, TimeUnit.MILLISECONDS, 2)
+            .syncLast(result::complete)));
+
+        assertEquals("hedge", result.getNow(null));
+        assertEquals(2, calls.get());
+        // Losing copies are cancelled once the winner has completed
+        try {
+            slow.get(5, TimeUnit.SECONDS);
+            fail("slow copy was not cancelled");
+        } catch (CancellationException expected) {
+        }
+    }
+
+    @Test
+    public void failedCopyStartsTheNextRightAway() throws Exception {
+        final AtomicInteger calls = new AtomicInteger();
+        final CompletableFuture<Object> result = new CompletableFuture<>();
+        final long start = System.nanoTime();
+        assertTrue(run(chain -> chain
+            .hedged((input) -> {
+                if (calls.incrementAndGet() == 1) {
+                    throw new IllegalStateException("expected by test");
+                }
+                return "retry";
+            }, 1, TimeUnit.MINUTES, 2)
+            .syncLast(result::complete)));
+
+        assertEquals("retry", result.getNow(null));
+        assertTrue(System.nanoTime() - start < TimeUnit.SECONDS.toNanos(5));
+        assertTrue(this.errors.isEmpty());
+    }
+
+    @Test
+    public void failsOnceEveryCopyFailed() throws Exception {
+        final AtomicInteger calls = new AtomicInteger();
+        assertFalse(run(chain -> chain
+            .hedged((input) -> {
+                calls.incrementAndGet();
+                throw new IllegalStateException("expected by test");
+            }, 10, TimeUnit.MILLISECONDS, 3)));
+
+        assertEquals(3, calls.get());
+        assertEquals(1, this.errors.size());
+        assertTrue(TaskChainFutures.unwrap(this.errors.get(0)) instanceof IllegalStateException);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void rejectsNoCopies() {
+        this.factory.newChain().hedged((input) -> null, 1, TimeUnit.SECONDS, 0);
+    }
+
+    private interface ChainBuilder {
+        TaskChain<?> build(TaskChain<Object> chain);
+    }
+}
@@ -0,0 +1,127 @@
+/*
+ * Copyright (c) 2016-2017 Daniel Ennis (Aikar) - MIT License
+ *
+ *  Permission is hereby granted, free of charge, to any person obtaining
+ *  a copy of this software and associated documentation files (the
+ *  "Software"), to deal in the Software without restriction, including
+ *  without limitation the rights to use, copy, modify, merge, publish,
+ *  distribute, sublicense, and/or sell copies of the Software, and to
+ *  permit persons to whom the Software is furnished to do so, subject to
+ *  the following conditions:
+ *
+ *  The above copyright notice and this permission notice shall be
+ *  included in all copies or substantial portions of the Software.
+ *
+ *  THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND,
+ *  EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF
+ *  MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND
+ *  NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE
+ *  LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION
+ *  OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION
+ *  WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package co.aikar.taskchain;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * A local stand-in for a platform that ticks regions of the world in parallel.
+ *
+ * Region keys are spread over a fixed number of lanes by hash, and each lane is owned by its own thread.
+ * With no lanes, the region methods are left to their defaults, like a single threaded platform.
+ */
+class LaneGameInterface implements GameInterface {
+    private final AsyncQueue asyncQueue = new TaskChainAsyncQueue();
+    final ScheduledExecutorService main;
+    final Thread mainThread;
+    private final ScheduledExecutorService[] lanes;
+    private final Thread[] laneThreads;
+
+    LaneGameInterface(int lanes) {
+        final Thread[] threads = new Thread[1];
+        this.main = newThread("Main", threads, 0);
+        this.mainThread = threads[0];
+        this.lanes = new ScheduledExecutorService[lanes];
+        this.laneThreads = new Thread[lanes];
+        for (int i = 0; i < lanes; i++) {
+            this.lanes[i] = newThread("Lane " + i, this.laneThreads, i);
+        }
+    }
+
+    /**
+     * Starts the executor's thread right away, so its owner is known before any task is posted
+     */
+    private static ScheduledExecutorService newThread(String name, Thread[] threads, int index) {
+        final ScheduledExecutorService executor = Executors.newSingleThreadScheduledExecutor(r -> {
+            final Thread thread = new Thread(r, name);
+            thread.setDaemon(true);
+            threads[index] = thread;
+            return thread;
+        });
+        final CountDownLatch started = new CountDownLatch(1);
+        executor.execute(started::countDown);
+        try {
+            started.await();
+        } catch (InterruptedException e) {
+            throw new RuntimeException(e);
+        }
+        return executor;
+    }
+
+    Thread laneThread(Object regionKey) {
+        return this.laneThreads[Math.floorMod(regionKey.hashCode(), this.lanes.length)];
+    }
+
+    @Override
+    public boolean isMainThread() {
+        return Thread.currentThread() == this.mainThread;
+    }
+
+    @Override
+    public AsyncQueue getAsyncQueue() {
+        return this.asyncQueue;
+    }
+
+    @Override
+    public void postToMain(Runnable run) {
+        this.main.execute(run);
+    }
+
+    @Override
+    public void postToRegion(Object regionKey, Runnable run) {
+        if (this.lanes.length == 0) {
+            GameInterface.super.postToRegion(regionKey, run);
+            return;
+        }
+        this.lanes[Math.floorMod(regionKey.hashCode(), this.lanes.length)].execute(run);
+    }
+
+    @Override
+    public boolean isOwnedByCurrentThread(Object regionKey) {
+        if (this.lanes.length == 0) {
+            return GameInterface.super.isOwnedByCurrentThread(regionKey);
+        }
+        return Thread.currentThread() == laneThread(regionKey);
+    }
+
+    @Override
+    public void scheduleTask(int gameUnits, Runnable run) {
+        this.main.schedule(run, gameUnits * 50L, TimeUnit.MILLISECONDS);
+    }
+
+    @Override
+    public void registerShutdownHandler(TaskChainFactory factory) {
+    }
+
+    void close() {
+        this.main.shutdownNow();
+        for (ScheduledExecutorService lane : this.lanes) {
+            lane.shutdownNow();
+        }
+        this.asyncQueue.shutdown(1, TimeUnit.SECONDS);
+    }
+}
@@ -0,0 +1,73 @@
+/*
+ * Copyright (c) 2016-2017 Daniel Ennis (Aikar) - MIT License
+ *
+ *  Permission is hereby granted, free of charge, to any person obtaining
+ *  a copy of this software and associated documentation files (the
+ *  "Software"), to deal in the Software without restriction, including
+ *  without limitation the rights to use, copy, modify, merge, publish,
+ *  distribute, sublicense, and/or sell copies of the Software, and to
+ *  permit persons to whom the Software is furnished to do so, subject to
+ *  the following conditions:
+ *
+ *  The above copyright notice and this permission notice shall be
+ *  included in all copies or substantial portions of the Software.
+ *
+ *  THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND,
+ *  EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF
+ *  MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND
+ *  NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE
+ *  LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION
+ *  OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION
+ *  WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package co.aikar.taskchain;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * A single threaded platform whose game units only pass when the test calls tick()
+ */
+class ManualTickGame implements GameInterface {
+    private final AsyncQueue asyncQueue = new TaskChainAsyncQueue();
+    final List<Runnable> scheduled = new ArrayList<>();
+
+    void tick(int ticks) {
+        for (int i = 0; i < ticks; i++) {
+            tick();
+        }
+    }
+
+    void tick() {
+        final List<Runnable> due = new ArrayList<>(this.scheduled);
+        this.scheduled.clear();
+        for (Runnable run : due) {
+            run.run();
+        }
+    }
+
+    @Override
+    public boolean isMainThread() {
+        return true;
+    }
+
+    @Override
+    public AsyncQueue getAsyncQueue() {
+        return this.asyncQueue;
+    }
+
+    @Override
+    public void postToMain(Runnable run) {
+        run.run();
+    }
+
+    @Override
+    public void scheduleTask(int gameUnits, Runnable run) {
+        this.scheduled.add(run);
+    }
+
+    @Override
+    public void registerShutdownHandler(TaskChainFactory factory) {
+    }
+}
@@ -0,0 +1,127 @@
+/*
+ * Copyright (c) 2016-2017 Daniel Ennis (Aikar) - MIT License
+ *
+ *  Permission is hereby granted, free of charge, to any person obtaining
+ *  a copy of this software and associated documentation files (the
+ *  "Software"), to deal in the Software without restriction, including
+ *  without limitation the rights to use, copy, modify, merge, publish,
+ *  distribute, sublicense, and/or sell copies of the Software, and to
+ *  permit persons to whom the Software is furnished to do so, subject to
+ *  the following conditions:
+ *
+ *  The above copyright notice and this permission notice shall be
+ *  included in all copies or substantial portions of the Software.
+ *
+ *  THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND,
+ *  EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF
+ *  MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND
+ *  NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE
+ *  LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION
+ *  OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION
+ *  WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package co.aikar.taskchain;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class PrimitiveStepsTest {
+    private LaneGameInterface game;
+    private TaskChainFactory factory;
+    private final List<Exception> errors = new CopyOnWriteArrayList<>();
+
+    @Before
+    public void setUp() {
+        this.game = new LaneGameInterface(0);
+        this.factory = new TaskChainFactory(this.game);
+    }
+
+    @After
+    public void tearDown() {
+        this.game.close();
+    }
+
+    private boolean run(ChainBuilder builder) throws Exception {
+        final CompletableFuture<Boolean> done = new CompletableFuture<>();
+        this.game.postToMain(() -> builder.build(this.factory.newChain())
+            .execute(done::complete, (e, task) -> this.errors.add(e)));
+        return done.get(5, TimeUnit.SECONDS);
+    }
+
+    @Test
+    public void primitivesPassBetweenSteps() throws Exception {
+        final CompletableFuture<Object> result = new CompletableFuture<>();
+        assertTrue(run(chain -> chain
+            .syncFirstInt(() -> 20)
+            .asyncInt((i) -> i + 1)
+            .syncLong((l) -> l * 1000000000L)
+            .currentDouble((d) -> d / 4)
+            .syncLast(result::complete)));
+
+        assertEquals(5.25e9, result.getNow(null));
+    }
+
+    @Test
+    public void boxedNumbersAreAccepted() throws Exception {
+        final CompletableFuture<Object> result = new CompletableFuture<>();
+        assertTrue(run(chain -> chain
+            .syncFirst(() -> 7.9)
+            .syncInt((i) -> i * 2)
+            .syncLast(result::complete)));
+
+        assertEquals(14, result.getNow(null));
+    }
+
+    @Test
+    public void nullInputIsZero() throws Exception {
+        final CompletableFuture<Object> result = new CompletableFuture<>();
+        assertTrue(run(chain -> chain
+            .syncFirst(() -> null)
+            .syncLong((l) -> l + 5)
+            .syncLast(result::complete)));
+
+        assertEquals(5L, result.getNow(null));
+        assertTrue(this.errors.isEmpty());
+    }
+
+    @Test
+    public void nonNumberInputFails() throws Exception {
+        final CompletableFuture<Boolean> ran = new CompletableFuture<>();
+        assertFalse(run(chain -> chain
+            .syncFirst(() -> "five")
+            .syncInt((i) -> {
+                ran.complete(true);
+                return i;
+            })));
+
+        assertFalse(ran.isDone());
+        assertEquals(1, this.errors.size());
+        assertTrue(this.errors.get(0) instanceof IllegalStateException);
+        assertTrue(this.errors.get(0).getMessage().contains("java.lang.String"));
+    }
+
+    @Test
+    public void emittedInputFails() throws Exception {
+        assertFalse(run(chain -> chain
+            .syncFirst(() -> TaskChain.emit(1, 2))
+            .syncLastDouble((d) -> {})));
+
+        assertEquals(1, this.errors.size());
+        assertTrue(this.errors.get(0) instanceof IllegalStateException);
+    }
+
+    private interface ChainBuilder {
+        TaskChain<?> build(TaskChain<?> chain);
+    }
+}
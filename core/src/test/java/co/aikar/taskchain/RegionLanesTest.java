@@ -0,0 +1,111 @@
+/*
+ * Copyright (c) 2016-2017 Daniel Ennis (Aikar) - MIT License
+ *
+ *  Permission is hereby granted, free of charge, to any person obtaining
+ *  a copy of this software and associated documentation files (the
+ *  "Software"), to deal in the Software without restriction, including
+ *  without limitation the rights to use, copy, modify, merge, publish,
+ *  distribute, sublicense, and/or sell copies of the Software, and to
+ *  permit persons to whom the Software is furnished to do so, subject to
+ *  the following conditions:
+ *
+ *  The above copyright notice and this permission notice shall be
+ *  included in all copies or substantial portions of the Software.
+ *
+ *  THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND,
+ *  EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF
+ *  MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND
+ *  NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE
+ *  LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION
+ *  OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION
+ *  WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package co.aikar.taskchain;
+
+import org.junit.After;
+import org.junit.Test;
+
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotEquals;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+public class RegionLanesTest {
+    private static final Object REGION_A = 0;
+    private static final Object REGION_B = 1;
+
+    private LaneGameInterface game;
+
+    @After
+    public void tearDown() {
+        if (this.game != null) {
+            this.game.close();
+        }
+    }
+
+    /**
+     * Runs the chain built on the main thread, returning the threads its steps recorded once it is done
+     */
+    private List<Thread> run(int lanes, ChainBuilder builder) throws Exception {
+        this.game = new LaneGameInterface(lanes);
+        final TaskChainFactory factory = new TaskChainFactory(this.game);
+        final List<Thread> threads = new CopyOnWriteArrayList<>();
+        final CompletableFuture<Boolean> done = new CompletableFuture<>();
+        this.game.postToMain(() -> builder.build(factory.newChain(), threads).execute(done::complete));
+        assertTrue("chain finished", done.get(5, TimeUnit.SECONDS));
+        return threads;
+    }
+
+    @Test
+    public void syncAtHandsOffToOwningLane() throws Exception {
+        final List<Thread> threads = run(2, (chain, seen) -> chain
+            .sync(() -> seen.add(Thread.currentThread()))
+            .syncAt(REGION_A, () -> seen.add(Thread.currentThread()))
+            .syncAt(REGION_B, () -> seen.add(Thread.currentThread()))
+            .sync(() -> seen.add(Thread.currentThread())));
+
+        assertEquals(4, threads.size());
+        assertSame(this.game.mainThread, threads.get(0));
+        assertSame(this.game.laneThread(REGION_A), threads.get(1));
+        assertSame(this.game.laneThread(REGION_B), threads.get(2));
+        assertNotEquals(threads.get(1), threads.get(2));
+        assertSame("sync steps return to the main thread", this.game.mainThread, threads.get(3));
+    }
+
+    @Test
+    public void asyncAfterSyncAtLeavesTheLane() throws Exception {
+        final List<Thread> threads = run(2, (chain, seen) -> chain
+            .syncAt(REGION_A, () -> seen.add(Thread.currentThread()))
+            .async(() -> seen.add(Thread.currentThread()))
+            .syncAt(REGION_A, () -> seen.add(Thread.currentThread())));
+
+        assertEquals(3, threads.size());
+        assertSame(this.game.laneThread(REGION_A), threads.get(0));
+        assertNotEquals("async steps do not block a region thread", this.game.laneThread(REGION_A), threads.get(1));
+        assertNotEquals(this.game.mainThread, threads.get(1));
+        assertSame(this.game.laneThread(REGION_A), threads.get(2));
+    }
+
+    @Test
+    public void syncAtFallsBackToMainThread() throws Exception {
+        final List<Thread> threads = run(0, (chain, seen) -> chain
+            .async(() -> seen.add(Thread.currentThread()))
+            .syncAt(REGION_A, () -> seen.add(Thread.currentThread()))
+            .syncAt(REGION_B, () -> seen.add(Thread.currentThread())));
+
+        assertEquals(3, threads.size());
+        assertNotEquals(this.game.mainThread, threads.get(0));
+        assertSame(this.game.mainThread, threads.get(1));
+        assertSame(this.game.mainThread, threads.get(2));
+    }
+
+    private interface ChainBuilder {
+        TaskChain<?> build(TaskChain<?> chain, List<Thread> seen);
+    }
+}
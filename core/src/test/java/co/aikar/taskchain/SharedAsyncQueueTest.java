@@ -0,0 +1,122 @@
+/*
+ * Copyright (c) 2016-2017 Daniel Ennis (Aikar) - MIT License
+ *
+ *  Permission is hereby granted, free of charge, to any person obtaining
+ *  a copy of this software and associated documentation files (the
+ *  "Software"), to deal in the Software without restriction, including
+ *  without limitation the rights to use, copy, modify, merge, publish,
+ *  distribute, sublicense, and/or sell copies of the Software, and to
+ *  permit persons to whom the Software is furnished to do so, subject to
+ *  the following conditions:
+ *
+ *  The above copyright notice and this permission notice shall be
+ *  included in all copies or substantial portions of the Software.
+ *
+ *  THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND,
+ *  EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF
+ *  MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND
+ *  NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE
+ *  LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION
+ *  OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION
+ *  WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package co.aikar.taskchain;
+
+import org.junit.After;
+import org.junit.Test;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+public class SharedAsyncQueueTest {
+    private final ForkJoinPool pool = new ForkJoinPool(2, ForkJoinPool.defaultForkJoinWorkerThreadFactory, null, true);
+
+    @After
+    public void tearDown() {
+        this.pool.shutdownNow();
+    }
+
+    @Test
+    public void runsAtMostMaxConcurrentTasks() throws Exception {
+        final TaskChainSharedAsyncQueue queue = new TaskChainSharedAsyncQueue(this.pool, 3);
+        final AtomicInteger running = new AtomicInteger();
+        final AtomicInteger most = new AtomicInteger();
+        final CountDownLatch started = new CountDownLatch(3);
+        final CountDownLatch done = new CountDownLatch(20);
+        for (int i = 0; i < 20; i++) {
+            queue.postAsync(() -> {
+                most.accumulateAndGet(running.incrementAndGet(), Math::max);
+                started.countDown();
+                // Holds the first tasks until the queue is at its limit
+                await(started);
+                sleep(10);
+                running.decrementAndGet();
+                done.countDown();
+            });
+        }
+        assertTrue(done.await(5, TimeUnit.SECONDS));
+        assertEquals(3, most.get());
+        // The last task counts down before the queue marks it finished
+        queue.shutdown(1, TimeUnit.SECONDS);
+        assertTrue(queue.isIdle());
+    }
+
+    @Test
+    public void blockedQueueDoesNotStarveOthers() throws Exception {
+        final TaskChainSharedAsyncQueue blocking = new TaskChainSharedAsyncQueue(this.pool, 4);
+        final TaskChainSharedAsyncQueue other = new TaskChainSharedAsyncQueue(this.pool, 1);
+        final CountDownLatch release = new CountDownLatch(1);
+        final CountDownLatch blocked = new CountDownLatch(4);
+        for (int i = 0; i < 4; i++) {
+            blocking.postAsync(() -> {
+                blocked.countDown();
+                await(release);
+            });
+        }
+        assertTrue("blocking tasks grow the pool past its parallelism", blocked.await(5, TimeUnit.SECONDS));
+
+        final CountDownLatch ran = new CountDownLatch(1);
+        other.postAsync(ran::countDown);
+        assertTrue(ran.await(5, TimeUnit.SECONDS));
+        release.countDown();
+    }
+
+    @Test
+    public void shutdownWaitsOnlyForItsOwnTasks() throws Exception {
+        final TaskChainSharedAsyncQueue busy = new TaskChainSharedAsyncQueue(this.pool, 1);
+        final TaskChainSharedAsyncQueue idle = new TaskChainSharedAsyncQueue(this.pool, 1);
+        final CountDownLatch release = new CountDownLatch(1);
+        busy.postAsync(() -> await(release));
+
+        final long start = System.nanoTime();
+        idle.shutdown(5, TimeUnit.SECONDS);
+        assertTrue(System.nanoTime() - start < TimeUnit.SECONDS.toNanos(1));
+
+        final AtomicInteger inline = new AtomicInteger();
+        idle.postAsync(inline::incrementAndGet);
+        assertEquals("tasks posted after shutdown run on the caller", 1, inline.get());
+        release.countDown();
+    }
+
+    private static void sleep(long millis) {
+        try {
+            Thread.sleep(millis);
+        } catch (InterruptedException e) {
+            throw new RuntimeException(e);
+        }
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            throw new RuntimeException(e);
+        }
+    }
+}
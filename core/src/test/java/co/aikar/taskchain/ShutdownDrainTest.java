@@ -0,0 +1,133 @@
+/*
+ * Copyright (c) 2016-2017 Daniel Ennis (Aikar) - MIT License
+ *
+ *  Permission is hereby granted, free of charge, to any person obtaining
+ *  a copy of this software and associated documentation files (the
+ *  "Software"), to deal in the Software without restriction, including
+ *  without limitation the rights to use, copy, modify, merge, publish,
+ *  distribute, sublicense, and/or sell copies of the Software, and to
+ *  permit persons to whom the Software is furnished to do so, subject to
+ *  the following conditions:
+ *
+ *  The above copyright notice and this permission notice shall be
+ *  included in all copies or substantial portions of the Software.
+ *
+ *  THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND,
+ *  EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF
+ *  MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND
+ *  NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE
+ *  LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION
+ *  OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION
+ *  WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package co.aikar.taskchain;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+public class ShutdownDrainTest {
+    private LaneGameInterface game;
+    private TaskChainFactory factory;
+
+    @Before
+    public void setUp() {
+        this.game = new LaneGameInterface(0);
+        this.factory = new TaskChainFactory(this.game);
+    }
+
+    @After
+    public void tearDown() {
+        this.game.close();
+    }
+
+    /**
+     * Executes the chain and shuts down right after on the main thread, like a server stopping mid chain
+     * @return How long shutdown took, in milliseconds
+     */
+    private long executeThenShutdown(TaskChain<?> chain, CompletableFuture<Boolean> done, int seconds) throws Exception {
+        final CompletableFuture<Long> took = new CompletableFuture<>();
+        this.game.postToMain(() -> {
+            chain.execute(done::complete);
+            final long start = System.nanoTime();
+            this.factory.shutdown(seconds, TimeUnit.SECONDS);
+            took.complete(TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start));
+        });
+        return took.get(seconds + 5, TimeUnit.SECONDS);
+    }
+
+    @Test
+    public void syncStepsRunOnShuttingDownThread() throws Exception {
+        final List<Thread> syncThreads = new CopyOnWriteArrayList<>();
+        final CompletableFuture<Boolean> done = new CompletableFuture<>();
+        final TaskChain<?> chain = this.factory.newChain()
+            .async(() -> sleep(50))
+            .sync(() -> syncThreads.add(Thread.currentThread()))
+            .async(() -> sleep(50))
+            .sync(() -> syncThreads.add(Thread.currentThread()));
+        executeThenShutdown(chain, done, 5);
+
+        assertTrue("chain finished during shutdown", done.getNow(false));
+        assertEquals(2, syncThreads.size());
+        for (Thread thread : syncThreads) {
+            assertSame(this.game.mainThread, thread);
+        }
+    }
+
+    @Test
+    public void delaysRunWithoutWaitingDuringShutdown() throws Exception {
+        final CompletableFuture<Boolean> done = new CompletableFuture<>();
+        final TaskChain<?> chain = this.factory.newChain()
+            .async(() -> sleep(20))
+            .delay(1, TimeUnit.MINUTES)
+            .sync(() -> {});
+        final long took = executeThenShutdown(chain, done, 5);
+
+        assertTrue(done.getNow(false));
+        assertTrue("took " + took + "ms", took < 2000);
+    }
+
+    @Test
+    public void returnsEarlyWhenChainWaitsOnOutsideFuture() throws Exception {
+        final CompletableFuture<Boolean> done = new CompletableFuture<>();
+        final CompletableFuture<Object> never = new CompletableFuture<>();
+        final TaskChain<?> chain = this.factory.newChain()
+            .async(() -> sleep(20))
+            .syncFuture(() -> never);
+        final long took = executeThenShutdown(chain, done, 5);
+
+        assertFalse(done.isDone());
+        assertTrue("took " + took + "ms", took < 2000);
+    }
+
+    @Test
+    public void stopsWaitingAtTheDeadline() throws Exception {
+        final CompletableFuture<Boolean> done = new CompletableFuture<>();
+        final TaskChain<?> chain = this.factory.newChain()
+            .async(() -> sleep(3000))
+            .sync(() -> {});
+        final long took = executeThenShutdown(chain, done, 1);
+
+        assertFalse(done.isDone());
+        assertTrue("took " + took + "ms", took >= 900 && took < 2500);
+    }
+
+    private static void sleep(long millis) {
+        try {
+            Thread.sleep(millis);
+        } catch (InterruptedException e) {
+            throw new RuntimeException(e);
+        }
+    }
+}
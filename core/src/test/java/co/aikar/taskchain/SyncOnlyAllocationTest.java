@@ -0,0 +1,100 @@
+/*
+ * Copyright (c) 2016-2017 Daniel Ennis (Aikar) - MIT License
+ *
+ *  Permission is hereby granted, free of charge, to any person obtaining
+ *  a copy of this software and associated documentation files (the
+ *  "Software"), to deal in the Software without restriction, including
+ *  without limitation the rights to use, copy, modify, merge, publish,
+ *  distribute, sublicense, and/or sell copies of the Software, and to
+ *  permit persons to whom the Software is furnished to do so, subject to
+ *  the following conditions:
+ *
+ *  The above copyright notice and this permission notice shall be
+ *  included in all copies or substantial portions of the Software.
+ *
+ *  THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND,
+ *  EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF
+ *  MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND
+ *  NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE
+ *  LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION
+ *  OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION
+ *  WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package co.aikar.taskchain;
+
+import org.junit.After;
+import org.junit.Assume;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.lang.management.ManagementFactory;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.assertEquals;
+
+public class SyncOnlyAllocationTest {
+    private static final Object VALUE = new Object();
+
+    private LaneGameInterface game;
+    private TaskChainFactory factory;
+    private com.sun.management.ThreadMXBean threads;
+
+    @Before
+    public void setUp() {
+        final java.lang.management.ThreadMXBean bean = ManagementFactory.getThreadMXBean();
+        Assume.assumeTrue("thread allocation counters are available",
+            bean instanceof com.sun.management.ThreadMXBean
+                && ((com.sun.management.ThreadMXBean) bean).isThreadAllocatedMemorySupported());
+        this.threads = (com.sun.management.ThreadMXBean) bean;
+        this.threads.setThreadAllocatedMemoryEnabled(true);
+        this.game = new LaneGameInterface(0);
+        this.factory = new TaskChainFactory(this.game);
+    }
+
+    @After
+    public void tearDown() {
+        if (this.game != null) {
+            this.game.close();
+        }
+    }
+
+    private TaskChain<?> newChain() {
+        return this.factory.newChain()
+            .syncFirst(() -> VALUE)
+            .sync((input) -> input)
+            .current((input) -> input)
+            .syncLast((input) -> {});
+    }
+
+    /**
+     * Bytes allocated by the current thread while executing a prebuilt chain, less the cost of reading the counter
+     */
+    private long measure() {
+        final long id = Thread.currentThread().getId();
+        final TaskChain<?> chain = newChain();
+        final long before = this.threads.getThreadAllocatedBytes(id);
+        final long overhead = this.threads.getThreadAllocatedBytes(id) - before;
+        final long start = this.threads.getThreadAllocatedBytes(id);
+        chain.execute();
+        return this.threads.getThreadAllocatedBytes(id) - start - overhead;
+    }
+
+    @Test
+    public void executingSyncOnlyChainOnMainThreadDoesNotAllocate() throws Exception {
+        final CompletableFuture<Long> allocated = new CompletableFuture<>();
+        this.game.postToMain(() -> {
+            try {
+                long least = Long.MAX_VALUE;
+                for (int i = 0; i < 20000; i++) {
+                    least = Math.min(least, measure());
+                }
+                allocated.complete(least);
+            } catch (Throwable e) {
+                allocated.completeExceptionally(e);
+            }
+        });
+        assertEquals(0L, (long) allocated.get(30, TimeUnit.SECONDS));
+    }
+}
@@ -0,0 +1,80 @@
+/*
+ * Copyright (c) 2016-2017 Daniel Ennis (Aikar) - MIT License
+ *
+ *  Permission is hereby granted, free of charge, to any person obtaining
+ *  a copy of this software and associated documentation files (the
+ *  "Software"), to deal in the Software without restriction, including
+ *  without limitation the rights to use, copy, modify, merge, publish,
+ *  distribute, sublicense, and/or sell copies of the Software, and to
+ *  permit persons to whom the Software is furnished to do so, subject to
+ *  the following conditions:
+ *
+ *  The above copyright notice and this permission notice shall be
+ *  included in all copies or substantial portions of the Software.
+ *
+ *  THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND,
+ *  EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF
+ *  MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND
+ *  NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE
+ *  LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION
+ *  OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION
+ *  WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package co.aikar.taskchain;
+
+import co.aikar.taskchain.TaskChainDataWrappers.Settled;
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+public class TaskChainFuturesTest {
+
+    @Test
+    public void allKeepsSupplyOrder() throws Exception {
+        final CompletableFuture<String> a = new CompletableFuture<>();
+        final CompletableFuture<String> b = new CompletableFuture<>();
+        final CompletableFuture<String> c = new CompletableFuture<>();
+        final CompletableFuture<List<String>> all = TaskChainFutures.all(Arrays.asList(a, b, c), false);
+
+        c.complete("c");
+        a.complete("a");
+        assertFalse(all.isDone());
+        b.complete("b");
+
+        assertEquals(Arrays.asList("a", "b", "c"), all.get(5, TimeUnit.SECONDS));
+    }
+
+    @Test
+    public void allOfNothingIsEmpty() throws Exception {
+        final List<CompletableFuture<String>> none = Collections.emptyList();
+        assertTrue(TaskChainFutures.all(none, false).get(5, TimeUnit.SECONDS).isEmpty());
+    }
+
+    @Test
+    public void settledReportsEachResult() throws Exception {
+        final CompletableFuture<String> a = new CompletableFuture<>();
+        final CompletableFuture<String> b = new CompletableFuture<>();
+        final CompletableFuture<List<Settled<String>>> settled = TaskChainFutures.settled(Arrays.asList(a, b));
+
+        final IllegalStateException failure = new IllegalStateException("b");
+        b.completeExceptionally(failure);
+        a.complete("a");
+
+        final List<Settled<String>> results = settled.get(5, TimeUnit.SECONDS);
+        assertEquals(2, results.size());
+        assertTrue(results.get(0).isSuccess());
+        assertEquals("a", results.get(0).value);
+        assertNull(results.get(1).value);
+        assertEquals(failure, results.get(1).error);
+    }
+}
@@ -0,0 +1,131 @@
+/*
+ * Copyright (c) 2016-2017 Daniel Ennis (Aikar) - MIT License
+ *
+ *  Permission is hereby granted, free of charge, to any person obtaining
+ *  a copy of this software and associated documentation files (the
+ *  "Software"), to deal in the Software without restriction, including
+ *  without limitation the rights to use, copy, modify, merge, publish,
+ *  distribute, sublicense, and/or sell copies of the Software, and to
+ *  permit persons to whom the Software is furnished to do so, subject to
+ *  the following conditions:
+ *
+ *  The above copyright notice and this permission notice shall be
+ *  included in all copies or substantial portions of the Software.
+ *
+ *  THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND,
+ *  EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF
+ *  MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND
+ *  NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE
+ *  LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION
+ *  OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION
+ *  WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package co.aikar.taskchain;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+public class TaskChainLanesTest {
+    private LaneGameInterface game;
+    private TaskChainFactory factory;
+
+    @Before
+    public void setUp() {
+        this.game = new LaneGameInterface(0);
+        this.factory = new TaskChainFactory(this.game);
+    }
+
+    @After
+    public void tearDown() {
+        this.game.close();
+    }
+
+    @Test
+    public void sameKeyRunsSeriallyInOrder() throws Exception {
+        final TaskChainLanes lanes = this.factory.lanes("saves", 4);
+        final List<Integer> order = new CopyOnWriteArrayList<>();
+        final AtomicInteger running = new AtomicInteger();
+        final AtomicInteger maxRunning = new AtomicInteger();
+        final List<CompletableFuture<Boolean>> done = new ArrayList<>();
+        for (int i = 0; i < 5; i++) {
+            final int index = i;
+            final CompletableFuture<Boolean> chainDone = new CompletableFuture<>();
+            done.add(chainDone);
+            final TaskChain<?> chain = lanes.newChain("player").async(() -> {
+                maxRunning.accumulateAndGet(running.incrementAndGet(), Math::max);
+                sleep(10);
+                order.add(index);
+                running.decrementAndGet();
+            });
+            this.game.postToMain(() -> chain.execute(chainDone::complete));
+        }
+        for (CompletableFuture<Boolean> chainDone : done) {
+            assertTrue(chainDone.get(5, TimeUnit.SECONDS));
+        }
+
+        assertEquals(Arrays.asList(0, 1, 2, 3, 4), order);
+        assertEquals(1, maxRunning.get());
+    }
+
+    @Test
+    public void keysOnDifferentStripesRunInParallel() throws Exception {
+        final TaskChainLanes lanes = this.factory.lanes("saves", 2);
+        // Both chains have to be running at once to get past the latch
+        final CountDownLatch bothRunning = new CountDownLatch(2);
+        final CompletableFuture<Boolean> first = new CompletableFuture<>();
+        final CompletableFuture<Boolean> second = new CompletableFuture<>();
+        this.game.postToMain(() -> {
+            lanes.newChain(0).async(() -> await(bothRunning)).execute(first::complete);
+            lanes.newChain(1).async(() -> await(bothRunning)).execute(second::complete);
+        });
+
+        assertTrue(first.get(5, TimeUnit.SECONDS));
+        assertTrue(second.get(5, TimeUnit.SECONDS));
+    }
+
+    @Test
+    public void lanesAreSharedByName() {
+        final TaskChainLanes lanes = this.factory.lanes("saves", 2);
+        assertSame(lanes, this.factory.lanes("saves", 8));
+        assertEquals(2, lanes.getStripes());
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void rejectsNoStripes() {
+        this.factory.lanes("saves", 0);
+    }
+
+    private static void await(CountDownLatch latch) {
+        latch.countDown();
+        try {
+            if (!latch.await(2, TimeUnit.SECONDS)) {
+                throw new IllegalStateException("chains did not run in parallel");
+            }
+        } catch (InterruptedException e) {
+            throw new RuntimeException(e);
+        }
+    }
+
+    private static void sleep(long millis) {
+        try {
+            Thread.sleep(millis);
+        } catch (InterruptedException e) {
+            throw new RuntimeException(e);
+        }
+    }
+}
@@ -0,0 +1,132 @@
+/*
+ * Copyright (c) 2016-2017 Daniel Ennis (Aikar) - MIT License
+ *
+ *  Permission is hereby granted, free of charge, to any person obtaining
+ *  a copy of this software and associated documentation files (the
+ *  "Software"), to deal in the Software without restriction, including
+ *  without limitation the rights to use, copy, modify, merge, publish,
+ *  distribute, sublicense, and/or sell copies of the Software, and to
+ *  permit persons to whom the Software is furnished to do so, subject to
+ *  the following conditions:
+ *
+ *  The above copyright notice and this permission notice shall be
+ *  included in all copies or substantial portions of the Software.
+ *
+ *  THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND,
+ *  EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF
+ *  MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND
+ *  NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE
+ *  LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION
+ *  OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION
+ *  WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package co.aikar.taskchain;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class TaskChainScheduleTest {
+    private ManualTickGame game;
+    private TaskChainFactory factory;
+
+    @Before
+    public void setUp() {
+        this.game = new ManualTickGame();
+        this.factory = new TaskChainFactory(this.game);
+    }
+
+    @After
+    public void tearDown() {
+        this.factory.shutdown(1, TimeUnit.SECONDS);
+    }
+
+    @Test
+    public void runsEveryPeriodAfterTheInitialDelay() {
+        final AtomicInteger runs = new AtomicInteger();
+        final TaskChainSchedule schedule = this.factory.schedule(chain -> chain.sync(runs::incrementAndGet), 2, 3);
+
+        this.game.tick(1);
+        assertEquals(0, runs.get());
+        this.game.tick(1);
+        assertEquals(1, runs.get());
+        this.game.tick(6);
+        assertEquals(3, runs.get());
+        assertEquals(3, schedule.getRuns());
+        assertEquals(0, schedule.getSkipped());
+    }
+
+    @Test
+    public void skipsRunsWhileThePreviousIsStillExecuting() {
+        final List<CompletableFuture<Object>> pending = new CopyOnWriteArrayList<>();
+        final TaskChainSchedule schedule = this.factory.schedule(chain -> chain.syncFuture(() -> {
+            final CompletableFuture<Object> future = new CompletableFuture<>();
+            pending.add(future);
+            return future;
+        }), 1, 1);
+
+        this.game.tick(1);
+        assertTrue(schedule.isRunning());
+        this.game.tick(3);
+        assertEquals(1, schedule.getRuns());
+        assertEquals(3, schedule.getSkipped());
+
+        pending.get(0).complete(null);
+        assertFalse(schedule.isRunning());
+        this.game.tick(1);
+        assertEquals(2, schedule.getRuns());
+        assertEquals(2, pending.size());
+    }
+
+    @Test
+    public void stopsOnceCancelled() {
+        final AtomicInteger runs = new AtomicInteger();
+        final TaskChainSchedule schedule = this.factory.schedule(chain -> chain.sync(runs::incrementAndGet), 1, 1);
+
+        this.game.tick(2);
+        schedule.cancel();
+        this.game.tick(5);
+
+        assertTrue(schedule.isCancelled());
+        assertEquals(2, runs.get());
+    }
+
+    @Test
+    public void runsOnRealTimePeriods() throws Exception {
+        final CountDownLatch ran = new CountDownLatch(3);
+        final TaskChainSchedule schedule = this.factory.schedule(chain -> chain.async(ran::countDown),
+            0, 10, TimeUnit.MILLISECONDS);
+        try {
+            assertTrue(ran.await(5, TimeUnit.SECONDS));
+        } finally {
+            schedule.cancel();
+        }
+        // Lets a run that was already firing when cancelled finish counting
+        Thread.sleep(50);
+        final long runs = schedule.getRuns();
+        Thread.sleep(50);
+        assertEquals(runs, schedule.getRuns());
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void rejectsTemplatesThatReturnAnotherChain() {
+        this.factory.schedule(chain -> this.factory.newChain(), 1, 1);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void rejectsEmptyPeriods() {
+        this.factory.schedule(chain -> chain, 1, 0);
+    }
+}
@@ -0,0 +1,183 @@
+/*
+ * Copyright (c) 2016-2017 Daniel Ennis (Aikar) - MIT License
+ *
+ *  Permission is hereby granted, free of charge, to any person obtaining
+ *  a copy of this software and associated documentation files (the
+ *  "Software"), to deal in the Software without restriction, including
+ *  without limitation the rights to use, copy, modify, merge, publish,
+ *  distribute, sublicense, and/or sell copies of the Software, and to
+ *  permit persons to whom the Software is furnished to do so, subject to
+ *  the following conditions:
+ *
+ *  The above copyright notice and this permission notice shall be
+ *  included in all copies or substantial portions of the Software.
+ *
+ *  THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND,
+ *  EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF
+ *  MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND
+ *  NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE
+ *  LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION
+ *  OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION
+ *  WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package co.aikar.taskchain;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+public class TaskChainStreamTest {
+    private LaneGameInterface game;
+    private TaskChainFactory factory;
+    private final List<Exception> errors = new CopyOnWriteArrayList<>();
+
+    @Before
+    public void setUp() {
+        this.game = new LaneGameInterface(0);
+        this.factory = new TaskChainFactory(this.game);
+    }
+
+    @After
+    public void tearDown() {
+        this.game.close();
+    }
+
+    /**
+     * Runs the chain built on the main thread, returning whether it finished without aborting
+     */
+    private boolean run(ChainBuilder builder) throws Exception {
+        final CompletableFuture<Boolean> done = new CompletableFuture<>();
+        this.game.postToMain(() -> builder.build(this.factory.newChain())
+            .execute(done::complete, (e, task) -> this.errors.add(e)));
+        return done.get(5, TimeUnit.SECONDS);
+    }
+
+    private static List<Integer> range(int size) {
+        final List<Integer> list = new ArrayList<>();
+        for (int i = 0; i < size; i++) {
+            list.add(i);
+        }
+        return list;
+    }
+
+    @Test
+    public void sinkSeesElementsInSourceOrderOnMainThread() throws Exception {
+        final AtomicInteger pulled = new AtomicInteger();
+        final Iterator<Integer> source = range(200).iterator();
+        final Iterator<Integer> counted = new Iterator<Integer>() {
+            @Override
+            public boolean hasNext() {
+                return source.hasNext();
+            }
+
+            @Override
+            public Integer next() {
+                pulled.incrementAndGet();
+                return source.next();
+            }
+        };
+        final List<Integer> sunk = new CopyOnWriteArrayList<>();
+        final List<Thread> sinkThreads = new CopyOnWriteArrayList<>();
+        final AtomicInteger maxInFlight = new AtomicInteger();
+        final CompletableFuture<Long> count = new CompletableFuture<>();
+        assertTrue(run(chain -> chain
+            .stream(counted)
+            .maxInFlight(8)
+            .async((Integer i) -> i * 2)
+            .syncSink((Integer i) -> {
+                maxInFlight.accumulateAndGet(pulled.get() - sunk.size(), Math::max);
+                sinkThreads.add(Thread.currentThread());
+                sunk.add(i);
+            }, 50)
+            .syncLast(count::complete)));
+
+        assertEquals(200, sunk.size());
+        for (int i = 0; i < sunk.size(); i++) {
+            assertEquals(Integer.valueOf(i * 2), sunk.get(i));
+        }
+        assertEquals(Long.valueOf(200), count.get());
+        for (Thread thread : sinkThreads) {
+            assertSame(this.game.mainThread, thread);
+        }
+        assertTrue("in flight elements stay within the window", maxInFlight.get() <= 8);
+        assertTrue(this.errors.isEmpty());
+    }
+
+    @Test
+    public void nullFromStageDropsElement() throws Exception {
+        final List<Integer> sunk = new CopyOnWriteArrayList<>();
+        assertTrue(run(chain -> chain
+            .stream(range(10).iterator())
+            .async((Integer i) -> i % 2 == 0 ? i : null)
+            .syncSink(sunk::add, 10)));
+
+        assertEquals(Arrays.asList(0, 2, 4, 6, 8), sunk);
+    }
+
+    @Test
+    public void abortInSinkAbortsTheChainQuietly() throws Exception {
+        final List<Integer> sunk = new CopyOnWriteArrayList<>();
+        final AtomicInteger after = new AtomicInteger();
+        assertFalse(run(chain -> chain
+            .stream(range(100).iterator())
+            .syncSink((Integer i) -> {
+                if (i == 5) {
+                    TaskChain.abort();
+                }
+                sunk.add(i);
+            }, 10)
+            .sync(after::incrementAndGet)));
+
+        assertEquals(5, sunk.size());
+        assertEquals(0, after.get());
+        assertTrue("abort is not reported as an error", this.errors.isEmpty());
+    }
+
+    @Test
+    public void stageErrorReachesErrorHandler() throws Exception {
+        assertFalse(run(chain -> chain
+            .stream(range(10).iterator())
+            .async((Integer i) -> {
+                if (i == 3) {
+                    throw new IllegalStateException("stage failed");
+                }
+                return i;
+            })
+            .syncSink((Integer i) -> {}, 10)));
+
+        assertEquals(1, this.errors.size());
+        assertEquals("stage failed", TaskChainFutures.unwrap(this.errors.get(0)).getMessage());
+    }
+
+    @Test
+    public void userFutureAbortStillReachesErrorHandler() throws Exception {
+        assertFalse(run(chain -> chain
+            .syncFuture(() -> {
+                final CompletableFuture<Object> future = new CompletableFuture<>();
+                future.completeExceptionally(new AbortChainException());
+                return future;
+            })));
+
+        assertEquals(1, this.errors.size());
+        assertTrue(this.errors.get(0) instanceof AbortChainException);
+    }
+
+    private interface ChainBuilder {
+        TaskChain<?> build(TaskChain<?> chain);
+    }
+}
@@ -0,0 +1,111 @@
+/*
+ * Copyright (c) 2016-2017 Daniel Ennis (Aikar) - MIT License
+ *
+ *  Permission is hereby granted, free of charge, to any person obtaining
+ *  a copy of this software and associated documentation files (the
+ *  "Software"), to deal in the Software without restriction, including
+ *  without limitation the rights to use, copy, modify, merge, publish,
+ *  distribute, sublicense, and/or sell copies of the Software, and to
+ *  permit persons to whom the Software is furnished to do so, subject to
+ *  the following conditions:
+ *
+ *  The above copyright notice and this permission notice shall be
+ *  included in all copies or substantial portions of the Software.
+ *
+ *  THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND,
+ *  EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF
+ *  MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND
+ *  NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE
+ *  LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION
+ *  OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION
+ *  WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package co.aikar.taskchain;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+public class TaskChainTickerTest {
+    private ManualTickGame game;
+    private TaskChainFactory factory;
+    private TaskChainTicker ticker;
+    private final List<String> fired = new ArrayList<>();
+
+    @Before
+    public void setUp() {
+        this.game = new ManualTickGame();
+        this.factory = new TaskChainFactory(this.game);
+        this.ticker = this.factory.getTicker();
+    }
+
+    @Test
+    public void delaysFireTogetherOnTheirTick() {
+        this.ticker.schedule(3, () -> this.fired.add("a"));
+        this.ticker.schedule(1, () -> this.fired.add("b"));
+        this.ticker.schedule(3, () -> this.fired.add("c"));
+
+        this.game.tick();
+        assertEquals(Collections.singletonList("b"), this.fired);
+        this.game.tick();
+        assertEquals(Collections.singletonList("b"), this.fired);
+        this.game.tick();
+        assertEquals(Arrays.asList("b", "a", "c"), this.fired);
+    }
+
+    @Test
+    public void usesOnePlatformTaskForEveryDelay() {
+        for (int i = 0; i < 1000; i++) {
+            this.ticker.schedule(1 + i % 20, () -> this.fired.add("x"));
+        }
+        assertEquals(1, this.game.scheduled.size());
+
+        for (int i = 0; i < 20; i++) {
+            this.game.tick();
+            assertEquals(1, this.game.scheduled.size());
+        }
+        assertEquals(1000, this.fired.size());
+    }
+
+    @Test
+    public void delaysLongerThanTheWheelWaitForTheirLap() {
+        this.ticker.schedule(600, () -> this.fired.add("late"));
+        for (int i = 0; i < 599; i++) {
+            this.game.tick();
+        }
+        assertTrue(this.fired.isEmpty());
+        this.game.tick();
+        assertEquals(Collections.singletonList("late"), this.fired);
+    }
+
+    @Test
+    public void failingTaskDoesNotStopTheBatch() {
+        this.ticker.schedule(1, () -> {
+            throw new IllegalStateException("expected by test");
+        });
+        this.ticker.schedule(1, () -> this.fired.add("after"));
+
+        this.game.tick();
+        assertEquals(Collections.singletonList("after"), this.fired);
+    }
+
+    @Test
+    public void runsInlineDuringShutdown() {
+        this.ticker.schedule(5, () -> this.fired.add("pending"));
+        this.factory.shutdown(1, TimeUnit.SECONDS);
+        this.ticker.schedule(5, () -> this.fired.add("inline"));
+
+        assertEquals(Collections.singletonList("inline"), this.fired);
+        this.ticker.runDeferred();
+        assertEquals(Arrays.asList("inline", "pending"), this.fired);
+    }
+}
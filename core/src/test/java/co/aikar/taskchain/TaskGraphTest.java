@@ -0,0 +1,161 @@
+/*
+ * Copyright (c) 2016-2017 Daniel Ennis (Aikar) - MIT License
+ *
+ *  Permission is hereby granted, free of charge, to any person obtaining
+ *  a copy of this software and associated documentation files (the
+ *  "Software"), to deal in the Software without restriction, including
+ *  without limitation the rights to use, copy, modify, merge, publish,
+ *  distribute, sublicense, and/or sell copies of the Software, and to
+ *  permit persons to whom the Software is furnished to do so, subject to
+ *  the following conditions:
+ *
+ *  The above copyright notice and this permission notice shall be
+ *  included in all copies or substantial portions of the Software.
+ *
+ *  THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND,
+ *  EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF
+ *  MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND
+ *  NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE
+ *  LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION
+ *  OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION
+ *  WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package co.aikar.taskchain;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotEquals;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+public class TaskGraphTest {
+    private LaneGameInterface game;
+    private TaskChainFactory factory;
+    private final List<Exception> errors = new CopyOnWriteArrayList<>();
+    private final Map<String, Thread> threads = new ConcurrentHashMap<>();
+
+    @Before
+    public void setUp() {
+        this.game = new LaneGameInterface(0);
+        this.factory = new TaskChainFactory(this.game);
+    }
+
+    @After
+    public void tearDown() {
+        this.game.close();
+    }
+
+    private boolean run(TaskChain<?> chain) throws Exception {
+        final CompletableFuture<Boolean> done = new CompletableFuture<>();
+        this.game.postToMain(() -> chain.execute(done::complete, (e, task) -> this.errors.add(e)));
+        return done.get(5, TimeUnit.SECONDS);
+    }
+
+    private <T> T record(String name, T value) {
+        this.threads.put(name, Thread.currentThread());
+        return value;
+    }
+
+    @Test
+    public void runsIndependentTasksTogetherAndJoinsOnMainThread() throws Exception {
+        final CountDownLatch bothStarted = new CountDownLatch(2);
+        final TaskGraph graph = new TaskGraph()
+            .async("a", (r) -> {
+                bothStarted.countDown();
+                return await(bothStarted) ? record("a", r.<Integer>getInput() + 1) : null;
+            })
+            .async("b", (r) -> {
+                bothStarted.countDown();
+                return await(bothStarted) ? record("b", r.<Integer>getInput() * 10) : null;
+            })
+            .sync("c", (r) -> record("c", r.<Integer>get("a") + r.<Integer>get("b")), "a", "b");
+        final CompletableFuture<Object> result = new CompletableFuture<>();
+        assertTrue(run(this.factory.newChain()
+            .syncFirst(() -> 5)
+            .graph(graph)
+            .syncLast((r) -> result.complete(r.get("c")))));
+
+        assertEquals(56, result.getNow(null));
+        assertNotEquals(this.game.mainThread, this.threads.get("a"));
+        assertNotEquals(this.game.mainThread, this.threads.get("b"));
+        assertSame(this.game.mainThread, this.threads.get("c"));
+    }
+
+    @Test
+    public void failureStopsLaterTasks() throws Exception {
+        final AtomicInteger ran = new AtomicInteger();
+        final TaskGraph graph = new TaskGraph()
+            .async("a", (r) -> {
+                throw new IllegalStateException("a failed");
+            })
+            .sync("b", (r) -> ran.incrementAndGet(), "a");
+        assertFalse(run(this.factory.newChain().graph(graph)));
+
+        assertEquals(0, ran.get());
+        assertEquals(1, this.errors.size());
+        assertEquals("a failed", this.errors.get(0).getMessage());
+    }
+
+    @Test
+    public void abortAbortsTheChainQuietly() throws Exception {
+        final TaskGraph graph = new TaskGraph()
+            .current("a", (r) -> {
+                TaskChain.abort();
+                return null;
+            });
+        assertFalse(run(this.factory.newChain().graph(graph)));
+        assertTrue(this.errors.isEmpty());
+    }
+
+    @Test
+    public void syncTasksRunOnShuttingDownThread() throws Exception {
+        final TaskGraph graph = new TaskGraph()
+            .async("a", (r) -> {
+                sleep(50);
+                return record("a", 1);
+            })
+            .sync("b", (r) -> record("b", 2), "a");
+        final CompletableFuture<Boolean> done = new CompletableFuture<>();
+        final CompletableFuture<Boolean> shutDown = new CompletableFuture<>();
+        this.game.postToMain(() -> {
+            this.factory.newChain().graph(graph).execute(done::complete);
+            this.factory.shutdown(5, TimeUnit.SECONDS);
+            shutDown.complete(true);
+        });
+        assertTrue(shutDown.get(10, TimeUnit.SECONDS));
+
+        assertTrue(done.getNow(false));
+        assertNotEquals(this.game.mainThread, this.threads.get("a"));
+        assertSame("the main thread is busy shutting down", this.game.mainThread, this.threads.get("b"));
+    }
+
+    private static boolean await(CountDownLatch latch) {
+        try {
+            return latch.await(2, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            throw new RuntimeException(e);
+        }
+    }
+
+    private static void sleep(long millis) {
+        try {
+            Thread.sleep(millis);
+        } catch (InterruptedException e) {
+            throw new RuntimeException(e);
+        }
+    }
+}
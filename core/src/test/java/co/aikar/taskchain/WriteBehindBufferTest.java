@@ -0,0 +1,118 @@
+/*
+ * Copyright (c) 2016-2017 Daniel Ennis (Aikar) - MIT License
+ *
+ *  Permission is hereby granted, free of charge, to any person obtaining
+ *  a copy of this software and associated documentation files (the
+ *  "Software"), to deal in the Software without restriction, including
+ *  without limitation the rights to use, copy, modify, merge, publish,
+ *  distribute, sublicense, and/or sell copies of the Software, and to
+ *  permit persons to whom the Software is furnished to do so, subject to
+ *  the following conditions:
+ *
+ *  The above copyright notice and this permission notice shall be
+ *  included in all copies or substantial portions of the Software.
+ *
+ *  THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND,
+ *  EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF
+ *  MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND
+ *  NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE
+ *  LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION
+ *  OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION
+ *  WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package co.aikar.taskchain;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+public class WriteBehindBufferTest {
+    private LaneGameInterface game;
+    private TaskChainFactory factory;
+    private final List<Map<String, Integer>> batches = new CopyOnWriteArrayList<>();
+
+    @Before
+    public void setUp() {
+        this.game = new LaneGameInterface(0);
+        this.factory = new TaskChainFactory(this.game);
+    }
+
+    @After
+    public void tearDown() {
+        this.game.close();
+    }
+
+    private WriteBehindBuffer<String, Integer> newBuffer(int maxPending, int flushInterval) {
+        return this.factory.newWriteBehindBuffer((batch) -> this.batches.add(new HashMap<>(batch)), maxPending, flushInterval);
+    }
+
+    private void awaitBatches(int count) throws InterruptedException {
+        final long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (this.batches.size() < count && System.nanoTime() < deadline) {
+            Thread.sleep(5);
+        }
+        assertEquals(count, this.batches.size());
+    }
+
+    @Test
+    public void keepsLatestValuePerKeyUntilTheInterval() throws Exception {
+        final WriteBehindBuffer<String, Integer> buffer = newBuffer(100, 2);
+        this.game.postToMain(() -> {
+            buffer.put("a", 1);
+            buffer.put("b", 1);
+            buffer.put("a", 2);
+        });
+        awaitBatches(1);
+
+        final Map<String, Integer> expected = new HashMap<>();
+        expected.put("a", 2);
+        expected.put("b", 1);
+        assertEquals(expected, this.batches.get(0));
+        assertEquals(0, buffer.getPending());
+    }
+
+    @Test
+    public void writesOnceMaxPendingIsReached() throws Exception {
+        final WriteBehindBuffer<String, Integer> buffer = newBuffer(3, 1000);
+        buffer.put("a", 1);
+        buffer.put("b", 2);
+        buffer.put("c", 3);
+        awaitBatches(1);
+        assertEquals(3, this.batches.get(0).size());
+    }
+
+    @Test
+    public void rejectsNullValues() {
+        final WriteBehindBuffer<String, Integer> buffer = newBuffer(10, 1000);
+        try {
+            buffer.put("a", null);
+            fail("null value accepted");
+        } catch (NullPointerException e) {
+            assertTrue(e.getMessage().contains("a"));
+        }
+        assertEquals(0, buffer.getPending());
+    }
+
+    @Test
+    public void writesOnShutdownAndInlineAfter() throws Exception {
+        final WriteBehindBuffer<String, Integer> buffer = newBuffer(10, 1000);
+        buffer.put("a", 1);
+        this.factory.shutdown(1, TimeUnit.SECONDS);
+        assertEquals(1, this.batches.size());
+
+        buffer.put("b", 2);
+        assertEquals("put after shutdown is written right away", 2, this.batches.size());
+        assertEquals(Integer.valueOf(2), this.batches.get(1).get("b"));
+    }
+}
@@ -27,7 +27,10 @@ import org.spongepowered.api.Sponge;
 import org.spongepowered.api.event.game.state.GameStoppingEvent;
 import org.spongepowered.api.plugin.PluginContainer;
 import org.spongepowered.api.scheduler.Task;
+import org.spongepowered.api.service.ServiceManager;
 
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.ForkJoinPool;
 import java.util.concurrent.ThreadPoolExecutor;
 import java.util.concurrent.TimeUnit;
 
@@ -43,6 +46,40 @@ public class SpongeTaskChainFactory extends TaskChainFactory {
     public static TaskChainFactory create(Object plugin) {
         return new SpongeTaskChainFactory(plugin, new TaskChainAsyncQueue());
     }
+
+    /**
+     * Creates a factory whose async tasks run on a thread pool shared with other plugins using shared factories.
+     *
+     * The pool is registered with the ServiceManager by the first plugin to create one.
+     * @param maxThreads Maximum number of this plugin's async tasks to run at once
+     */
+    public static TaskChainFactory createShared(PluginContainer pluginContainer, int maxThreads) {
+        return createShared(pluginContainer.getInstance().orElse(null), maxThreads);
+    }
+
+    public static TaskChainFactory createShared(Object plugin, int maxThreads) {
+        return createShared(plugin, getSharedExecutor(plugin), maxThreads);
+    }
+
+    /**
+     * Creates a factory whose async tasks run on the given thread pool
+     * @param executor The pool to share
+     * @param maxThreads Maximum number of this plugin's async tasks to run at once
+     */
+    public static TaskChainFactory createShared(Object plugin, ExecutorService executor, int maxThreads) {
+        return new SpongeTaskChainFactory(plugin, new TaskChainSharedAsyncQueue(executor, maxThreads));
+    }
+
+    private static ForkJoinPool getSharedExecutor(Object plugin) {
+        final ServiceManager services = Sponge.getServiceManager();
+        final ForkJoinPool existing = services.provide(ForkJoinPool.class).orElse(null);
+        if (existing != null && !existing.isShutdown()) {
+            return existing;
+        }
+        final ForkJoinPool executor = TaskChainSharedAsyncQueue.newSharedExecutor();
+        services.setProvider(plugin, ForkJoinPool.class, executor);
+        return executor;
+    }
 /* @TODO: #9 - Not Safe to do this
     public static TaskChainFactory create(Object plugin, ThreadPoolExecutor executor) {
         return new SpongeTaskChainFactory(new SpongeGameInterface(plugin, new TaskChainAsyncQueue(executor)));